@@ -465,6 +465,13 @@ public class AsmUtil {
         v.invokespecial("java/lang/StringBuilder", "<init>", "()V", false);
     }
 
+    public static void genStringBuilderConstructor(InstructionAdapter v, int capacity) {
+        v.visitTypeInsn(NEW, "java/lang/StringBuilder");
+        v.dup();
+        v.iconst(capacity);
+        v.invokespecial("java/lang/StringBuilder", "<init>", "(I)V", false);
+    }
+
     public static void genInvokeAppendMethod(InstructionAdapter v, Type type) {
         type = stringBuilderAppendType(type);
         v.invokevirtual("java/lang/StringBuilder", "append", "(" + type.getDescriptor() + ")Ljava/lang/StringBuilder;", false);
@@ -619,6 +626,19 @@ public class AsmUtil {
         // Private method is not accessible from other classes, no assertions needed
         if (getVisibilityAccessFlag(descriptor) == ACC_PRIVATE) return;
 
+        // Internal method is only supposed to be called from Kotlin code of the same module, where nullability is checked statically,
+        // unless it overrides a non-internal member which can be called from Java through the supertype
+        if (!state.isInternalParamAssertionsEnabled() && isEffectivelyInternal(descriptor)) {
+            boolean overridesOnlyInternal = true;
+            for (FunctionDescriptor overridden : getAllOverriddenDescriptors(descriptor)) {
+                if (!isEffectivelyInternal(overridden)) {
+                    overridesOnlyInternal = false;
+                    break;
+                }
+            }
+            if (overridesOnlyInternal) return;
+        }
+
         ReceiverParameterDescriptor receiverParameter = descriptor.getExtensionReceiverParameter();
         if (receiverParameter != null) {
             genParamAssertion(v, state.getTypeMapper(), frameMap, receiverParameter, "$receiver");
@@ -629,6 +649,10 @@ public class AsmUtil {
         }
     }
 
+    private static boolean isEffectivelyInternal(@NotNull FunctionDescriptor descriptor) {
+        return EffectiveVisibilityKt.effectiveVisibility(descriptor, descriptor.getVisibility()) == EffectiveVisibility.Internal.INSTANCE;
+    }
+
     private static void genParamAssertion(
             @NotNull InstructionAdapter v,
             @NotNull KotlinTypeMapper typeMapper,
@@ -44,6 +44,7 @@ import org.jetbrains.kotlin.codegen.signature.BothSignatureWriter;
 import org.jetbrains.kotlin.codegen.signature.JvmSignatureWriter;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
 import org.jetbrains.kotlin.codegen.state.KotlinTypeMapper;
+import org.jetbrains.kotlin.codegen.when.SealedClassSwitchCodegen;
 import org.jetbrains.kotlin.codegen.when.SwitchCodegen;
 import org.jetbrains.kotlin.codegen.when.SwitchCodegenUtil;
 import org.jetbrains.kotlin.descriptors.*;
@@ -1333,19 +1334,43 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
             return StackValue.constant(constantValue.toString(), type);
         }
         else {
+            // adjacent literal and escape entries are merged into a single constant (String) between expressions (KtExpression)
+            final List<Object> parts = new ArrayList<Object>(entries.length);
+            int estimatedLength = 0;
+            StringBuilder constantPart = new StringBuilder();
+            for (KtStringTemplateEntry entry : entries) {
+                if (entry instanceof KtStringTemplateEntryWithExpression) {
+                    if (constantPart.length() > 0) {
+                        parts.add(constantPart.toString());
+                        constantPart.setLength(0);
+                    }
+                    KtExpression entryExpression = entry.getExpression();
+                    parts.add(entryExpression);
+                    estimatedLength += estimateAppendedLength(entryExpression);
+                }
+                else {
+                    String text = entry instanceof KtEscapeStringTemplateEntry
+                                  ? ((KtEscapeStringTemplateEntry) entry).getUnescapedValue()
+                                  : entry.getText();
+                    constantPart.append(text);
+                    estimatedLength += text.length();
+                }
+            }
+            if (constantPart.length() > 0) {
+                parts.add(constantPart.toString());
+            }
+
+            final int capacity = estimatedLength;
             return StackValue.operation(JAVA_STRING_TYPE, new Function1<InstructionAdapter, Unit>() {
                 @Override
                 public Unit invoke(InstructionAdapter v) {
-                    genStringBuilderConstructor(v);
-                    for (KtStringTemplateEntry entry : entries) {
-                        if (entry instanceof KtStringTemplateEntryWithExpression) {
-                            invokeAppend(entry.getExpression());
+                    genStringBuilderConstructor(v, capacity);
+                    for (Object part : parts) {
+                        if (part instanceof KtExpression) {
+                            invokeAppend((KtExpression) part);
                         }
                         else {
-                            String text = entry instanceof KtEscapeStringTemplateEntry
-                                          ? ((KtEscapeStringTemplateEntry) entry).getUnescapedValue()
-                                          : entry.getText();
-                            v.aconst(text);
+                            v.aconst(part);
                             genInvokeAppendMethod(v, JAVA_STRING_TYPE);
                         }
                     }
@@ -2757,6 +2782,9 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
                     v.checkcast(type);
                 }
             }
+            else if (canCopySpreadArraysDirectly(arguments)) {
+                genVarargsWithArrayCopy(arguments, outType, type, elementType);
+            }
             else {
                 String owner;
                 String addDescriptor;
@@ -2811,6 +2839,120 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         }
     }
 
+    /**
+     * The arguments are copied to the resulting array only after all of them are evaluated, so it is only allowed
+     * when the arguments following the first spread one can't modify the arrays evaluated before them.
+     */
+    private boolean canCopySpreadArraysDirectly(@NotNull List<ValueArgument> arguments) {
+        boolean afterSpread = false;
+        for (ValueArgument argument : arguments) {
+            if (afterSpread && !isSideEffectFree(argument.getArgumentExpression())) {
+                return false;
+            }
+            if (argument.getSpreadElement() != null) {
+                afterSpread = true;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSideEffectFree(@Nullable KtExpression expression) {
+        KtExpression deparenthesized = KtPsiUtil.deparenthesize(expression);
+        if (deparenthesized instanceof KtConstantExpression || deparenthesized instanceof KtThisExpression) {
+            return true;
+        }
+        if (deparenthesized instanceof KtStringTemplateExpression) {
+            for (KtStringTemplateEntry entry : ((KtStringTemplateExpression) deparenthesized).getEntries()) {
+                if (entry.getExpression() != null) return false;
+            }
+            return true;
+        }
+        if (deparenthesized instanceof KtSimpleNameExpression) {
+            DeclarationDescriptor descriptor = bindingContext.get(REFERENCE_TARGET, (KtSimpleNameExpression) deparenthesized);
+            return descriptor instanceof ValueParameterDescriptor ||
+                   (descriptor instanceof LocalVariableDescriptor && !((LocalVariableDescriptor) descriptor).isDelegated());
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the arguments to temporary variables, allocates the resulting array of the total size
+     * and fills it using System.arraycopy for spread arguments.
+     */
+    private void genVarargsWithArrayCopy(
+            @NotNull List<ValueArgument> arguments,
+            @NotNull KotlinType outType,
+            @NotNull Type type,
+            @NotNull Type elementType
+    ) {
+        int size = arguments.size();
+        Type[] argumentTypes = new Type[size];
+        int[] argumentIndices = new int[size];
+        int singleElementCount = 0;
+        for (int i = 0; i != size; ++i) {
+            ValueArgument argument = arguments.get(i);
+            boolean isSpread = argument.getSpreadElement() != null;
+            argumentTypes[i] = isSpread ? type : elementType;
+            if (!isSpread) {
+                singleElementCount++;
+            }
+            gen(argument.getArgumentExpression(), argumentTypes[i]);
+            argumentIndices[i] = myFrameMap.enterTemp(argumentTypes[i]);
+            v.store(argumentIndices[i], argumentTypes[i]);
+        }
+
+        v.iconst(singleElementCount);
+        for (int i = 0; i != size; ++i) {
+            if (arguments.get(i).getSpreadElement() != null) {
+                v.load(argumentIndices[i], type);
+                v.arraylength();
+                v.add(Type.INT_TYPE);
+            }
+        }
+        newArrayInstruction(outType);
+        int resultIndex = myFrameMap.enterTemp(type);
+        v.store(resultIndex, type);
+        int positionIndex = myFrameMap.enterTemp(Type.INT_TYPE);
+        v.iconst(0);
+        v.store(positionIndex, Type.INT_TYPE);
+
+        for (int i = 0; i != size; ++i) {
+            boolean isLast = i == size - 1;
+            if (arguments.get(i).getSpreadElement() != null) {
+                v.load(argumentIndices[i], type);
+                v.iconst(0);
+                v.load(resultIndex, type);
+                v.load(positionIndex, Type.INT_TYPE);
+                v.load(argumentIndices[i], type);
+                v.arraylength();
+                v.invokestatic("java/lang/System", "arraycopy", "(Ljava/lang/Object;ILjava/lang/Object;II)V", false);
+                if (!isLast) {
+                    v.load(positionIndex, Type.INT_TYPE);
+                    v.load(argumentIndices[i], type);
+                    v.arraylength();
+                    v.add(Type.INT_TYPE);
+                    v.store(positionIndex, Type.INT_TYPE);
+                }
+            }
+            else {
+                v.load(resultIndex, type);
+                v.load(positionIndex, Type.INT_TYPE);
+                v.load(argumentIndices[i], elementType);
+                v.astore(elementType);
+                if (!isLast) {
+                    v.iinc(positionIndex, 1);
+                }
+            }
+        }
+
+        v.load(resultIndex, type);
+        myFrameMap.leaveTemp(Type.INT_TYPE);
+        myFrameMap.leaveTemp(type);
+        for (int i = size - 1; i >= 0; --i) {
+            myFrameMap.leaveTemp(argumentTypes[i]);
+        }
+    }
+
     public int indexOfLocalNotDelegated(KtReferenceExpression lhs) {
         DeclarationDescriptor declarationDescriptor = bindingContext.get(REFERENCE_TARGET, lhs);
         if (isVarCapturedInClosure(bindingContext, declarationDescriptor)) {
@@ -3229,6 +3371,37 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         }
     }
 
+    /**
+     * Returns the expected length of the string representation of a template entry, used to presize the StringBuilder.
+     */
+    private int estimateAppendedLength(@Nullable KtExpression expr) {
+        if (expr == null) return 0;
+
+        ConstantValue<?> compileTimeConstant = getPrimitiveOrStringCompileTimeConstant(expr, bindingContext);
+        if (compileTimeConstant != null) {
+            return String.valueOf(compileTimeConstant.getValue()).length();
+        }
+
+        switch (expressionType(expr).getSort()) {
+            case Type.BOOLEAN:
+                return 5;
+            case Type.CHAR:
+                return 1;
+            case Type.BYTE:
+            case Type.SHORT:
+                return 6;
+            case Type.INT:
+                return 11;
+            case Type.LONG:
+                return 20;
+            case Type.FLOAT:
+            case Type.DOUBLE:
+                return 24;
+            default:
+                return 16;
+        }
+    }
+
     public void invokeAppend(KtExpression expr) {
         ConstantValue<?> compileTimeConstant = getPrimitiveOrStringCompileTimeConstant(expr, bindingContext);
 
@@ -4000,14 +4173,26 @@ The "returned" value of try expression with no finally is either the last expres
                 Label end = new Label();
                 boolean hasElse = KtPsiUtil.checkWhenExpressionHasSingleElse(expression);
 
+                List<Label> entryLabels = new ArrayList<Label>(expression.getEntries().size());
+                for (int i = 0; i < expression.getEntries().size(); i++) {
+                    entryLabels.add(new Label());
+                }
+
+                SealedClassSwitchCodegen sealedClassSwitch =
+                        subjectLocal != -1 ? SealedClassSwitchCodegen.buildIfPossible(expression, ExpressionCodegen.this) : null;
+                if (sealedClassSwitch != null) {
+                    sealedClassSwitch.generate(subjectLocal, subjectType, entryLabels);
+                }
+
                 Label nextCondition = null;
+                Iterator<Label> entryLabelsIterator = entryLabels.iterator();
                 for (KtWhenEntry whenEntry : expression.getEntries()) {
                     if (nextCondition != null) {
                         v.mark(nextCondition);
                     }
                     nextCondition = new Label();
                     FrameMap.Mark mark = myFrameMap.mark();
-                    Label thisEntry = new Label();
+                    Label thisEntry = entryLabelsIterator.next();
                     if (!whenEntry.isElse()) {
                         KtWhenCondition[] conditions = whenEntry.getConditions();
                         for (int i = 0; i < conditions.length; i++) {
@@ -19,6 +19,7 @@ package org.jetbrains.kotlin.codegen.binding;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.ClassBuilderMode;
 import org.jetbrains.kotlin.codegen.JvmCodegenUtil;
 import org.jetbrains.kotlin.codegen.SamType;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
@@ -75,7 +76,10 @@ public class CodegenBinding {
 
     public static void initTrace(@NotNull GenerationState state) {
         CodegenAnnotatingVisitor visitor = new CodegenAnnotatingVisitor(state);
-        for (KtFile file : allFilesInPackages(state.getBindingContext(), state.getFiles())) {
+        // Light classes are only built for declarations from the given files, and closure names don't depend on other files,
+        // so there is no need to walk the bodies of the whole package for each light class
+        boolean withOtherFilesInPackages = state.getClassBuilderMode() != ClassBuilderMode.LIGHT_CLASSES;
+        for (KtFile file : filesToAnnotate(state.getBindingContext(), state.getFiles(), withOtherFilesInPackages)) {
             file.accept(visitor);
         }
     }
@@ -180,24 +184,30 @@ public class CodegenBinding {
     }
 
     @NotNull
-    private static Collection<KtFile> allFilesInPackages(BindingContext bindingContext, Collection<KtFile> files) {
-        // todo: we use Set and add given files but ignoring other scripts because something non-clear kept in binding
-        // for scripts especially in case of REPL
-
-        Set<FqName> names = new HashSet<FqName>();
-        for (KtFile file : files) {
-            if (!file.isScript()) {
-                names.add(file.getPackageFqName());
-            }
-        }
-
+    private static Collection<KtFile> filesToAnnotate(
+            BindingContext bindingContext,
+            Collection<KtFile> files,
+            boolean withOtherFilesInPackages
+    ) {
         Set<KtFile> answer = new HashSet<KtFile>();
         answer.addAll(files);
 
-        for (FqName name : names) {
-            Collection<KtFile> jetFiles = bindingContext.get(PACKAGE_TO_FILES, name);
-            if (jetFiles != null) {
-                answer.addAll(jetFiles);
+        if (withOtherFilesInPackages) {
+            // todo: we use Set and add given files but ignoring other scripts because something non-clear kept in binding
+            // for scripts especially in case of REPL
+
+            Set<FqName> names = new HashSet<FqName>();
+            for (KtFile file : files) {
+                if (!file.isScript()) {
+                    names.add(file.getPackageFqName());
+                }
+            }
+
+            for (FqName name : names) {
+                Collection<KtFile> jetFiles = bindingContext.get(PACKAGE_TO_FILES, name);
+                if (jetFiles != null) {
+                    answer.addAll(jetFiles);
+                }
             }
         }
 
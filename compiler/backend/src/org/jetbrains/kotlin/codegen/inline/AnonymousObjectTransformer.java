@@ -25,6 +25,8 @@ import org.jetbrains.kotlin.codegen.FieldInfo;
 import org.jetbrains.kotlin.codegen.StackValue;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
 import org.jetbrains.kotlin.codegen.state.KotlinTypeMapper;
+import org.jetbrains.kotlin.load.java.JvmAbi;
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes;
 import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin;
 import org.jetbrains.org.objectweb.asm.*;
 import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
@@ -43,6 +45,12 @@ public class AnonymousObjectTransformer extends ObjectTransformer<AnonymousObjec
 
     private MethodNode constructor;
 
+    private String superClassName;
+
+    private boolean hasInstanceField;
+
+    private boolean hasStaticInitializer;
+
     private String sourceInfo;
 
     private String debugInfo;
@@ -81,6 +89,7 @@ public class AnonymousObjectTransformer extends ObjectTransformer<AnonymousObjec
             @Override
             public void visit(int version, int access, @NotNull String name, String signature, String superName, String[] interfaces) {
                 InlineCodegenUtil.assertVersionNotGreaterThanJava6(version, name);
+                superClassName = superName;
                 classBuilder.defineClass(null, version, access, name, signature, superName, interfaces);
             }
 
@@ -100,6 +109,9 @@ public class AnonymousObjectTransformer extends ObjectTransformer<AnonymousObjec
 
                     constructor = node;
                 } else {
+                    if (name.equals("<clinit>")) {
+                        hasStaticInitializer = true;
+                    }
                     methodsToTransform.add(node);
                 }
                 return node;
@@ -110,6 +122,9 @@ public class AnonymousObjectTransformer extends ObjectTransformer<AnonymousObjec
                     int access, @NotNull String name, @NotNull String desc, String signature, Object value
             ) {
                 addUniqueField(name);
+                if (name.equals(JvmAbi.INSTANCE_FIELD)) {
+                    hasInstanceField = true;
+                }
                 if (InlineCodegenUtil.isCapturedFieldName(name)) {
                     return null;
                 } else {
@@ -177,6 +192,11 @@ public class AnonymousObjectTransformer extends ObjectTransformer<AnonymousObjec
 
         generateConstructorAndFields(classBuilder, allCapturedParamBuilder, constructorParamBuilder, parentRemapper, additionalFakeParams);
 
+        if (isNonCapturingLambda()) {
+            generateSingletonInstance(classBuilder);
+            transformationInfo.setSingleton(true);
+        }
+
         SourceMapper.Companion.flushToClassBuilder(sourceMapper, classBuilder);
 
         ClassVisitor visitor = classBuilder.getVisitor();
@@ -191,6 +211,30 @@ public class AnonymousObjectTransformer extends ObjectTransformer<AnonymousObjec
         return transformationResult;
     }
 
+    private boolean isNonCapturingLambda() {
+        return AsmTypes.LAMBDA.getInternalName().equals(superClassName) &&
+               "()V".equals(transformationInfo.getNewConstructorDescriptor()) &&
+               !hasInstanceField &&
+               !hasStaticInitializer;
+    }
+
+    private void generateSingletonInstance(@NotNull ClassBuilder classBuilder) {
+        Type newObjectType = Type.getObjectType(transformationInfo.getNewClassName());
+        classBuilder.newField(NO_ORIGIN, Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_PUBLIC, JvmAbi.INSTANCE_FIELD,
+                              newObjectType.getDescriptor(), null, null);
+
+        MethodVisitor mv = classBuilder.newMethod(NO_ORIGIN, Opcodes.ACC_STATIC, "<clinit>", "()V", null, ArrayUtil.EMPTY_STRING_ARRAY);
+        InstructionAdapter iv = new InstructionAdapter(mv);
+        mv.visitCode();
+        iv.anew(newObjectType);
+        iv.dup();
+        iv.invokespecial(newObjectType.getInternalName(), "<init>", "()V", false);
+        iv.putstatic(newObjectType.getInternalName(), JvmAbi.INSTANCE_FIELD, newObjectType.getDescriptor());
+        iv.areturn(Type.VOID_TYPE);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+    }
+
     private void writeOuterInfo(@NotNull ClassVisitor visitor) {
         InlineCallSiteInfo info = inliningContext.getCallSiteInfo();
         visitor.visitOuterClass(info.getOwnerClassName(), info.getFunctionName(), info.getFunctionDesc());
@@ -24,7 +24,9 @@ import org.jetbrains.kotlin.codegen.ClosureCodegen;
 import org.jetbrains.kotlin.codegen.StackValue;
 import org.jetbrains.kotlin.codegen.intrinsics.IntrinsicMethods;
 import org.jetbrains.kotlin.codegen.optimization.MandatoryMethodTransformer;
+import org.jetbrains.kotlin.codegen.optimization.common.UtilKt;
 import org.jetbrains.kotlin.codegen.state.KotlinTypeMapper;
+import org.jetbrains.kotlin.load.java.JvmAbi;
 import org.jetbrains.kotlin.utils.SmartList;
 import org.jetbrains.kotlin.utils.SmartSet;
 import org.jetbrains.org.objectweb.asm.Label;
@@ -276,13 +278,21 @@ public class MethodInliner {
                     assert transformationInfo instanceof AnonymousObjectTransformationInfo :
                             "<init> call doesn't correspond to object transformation info: " + owner + "." + name + ", info " + transformationInfo;
                     if (transformationInfo.shouldRegenerate(isSameModule)) {
-                        //put additional captured parameters on stack
-                        for (CapturedParamDesc capturedParamDesc : ((AnonymousObjectTransformationInfo) transformationInfo).getAllRecapturedParameters()) {
-                            visitFieldInsn(Opcodes.GETSTATIC, capturedParamDesc.getContainingLambdaName(),
-                                           "$$$" + capturedParamDesc.getFieldName(), capturedParamDesc.getType().getDescriptor());
+                        String newClassName = transformationInfo.getNewClassName();
+                        if (((AnonymousObjectTransformationInfo) transformationInfo).isSingleton() &&
+                            removeNewAndDupForSingleton(resultNode, newClassName)) {
+                            super.visitFieldInsn(Opcodes.GETSTATIC, newClassName, JvmAbi.INSTANCE_FIELD,
+                                                 Type.getObjectType(newClassName).getDescriptor());
+                        }
+                        else {
+                            //put additional captured parameters on stack
+                            for (CapturedParamDesc capturedParamDesc : ((AnonymousObjectTransformationInfo) transformationInfo).getAllRecapturedParameters()) {
+                                visitFieldInsn(Opcodes.GETSTATIC, capturedParamDesc.getContainingLambdaName(),
+                                               "$$$" + capturedParamDesc.getFieldName(), capturedParamDesc.getType().getDescriptor());
+                            }
+                            super.visitMethodInsn(opcode, newClassName, name,
+                                                  ((AnonymousObjectTransformationInfo) transformationInfo).getNewConstructorDescriptor(), itf);
                         }
-                        super.visitMethodInsn(opcode, transformationInfo.getNewClassName(), name,
-                                              ((AnonymousObjectTransformationInfo) transformationInfo).getNewConstructorDescriptor(), itf);
 
                         //TODO: add new inner class also for other contexts
                         if (inliningContext.getParent() instanceof RegeneratedClassContext) {
@@ -612,6 +622,22 @@ public class MethodInliner {
         return null;
     }
 
+    // NEW and DUP for a regenerated non-capturing lambda are replaced with a load of its INSTANCE field along with the constructor call
+    private static boolean removeNewAndDupForSingleton(@NotNull MethodNode node, @NotNull String newClassName) {
+        AbstractInsnNode dup = node.instructions.getLast();
+        while (dup != null && !UtilKt.isMeaningful(dup)) {
+            dup = dup.getPrevious();
+        }
+        if (dup == null || dup.getOpcode() != Opcodes.DUP) return false;
+
+        AbstractInsnNode anew = getPrevMeaningful(dup);
+        if (anew == null || anew.getOpcode() != Opcodes.NEW || !((TypeInsnNode) anew).desc.equals(newClassName)) return false;
+
+        node.instructions.remove(dup);
+        node.instructions.remove(anew);
+        return true;
+    }
+
     private static void removeClosureAssertions(MethodNode node) {
         AbstractInsnNode cur = node.instructions.getFirst();
         while (cur != null && cur.getNext() != null) {
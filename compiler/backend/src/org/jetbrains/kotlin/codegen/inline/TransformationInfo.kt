@@ -83,6 +83,9 @@ class AnonymousObjectTransformationInfo internal constructor(
 
     lateinit var capturedLambdasToInline: Map<String, LambdaInfo>
 
+    // Regenerated lambda captures nothing and is loaded from its static INSTANCE field instead of being created on each call
+    var isSingleton: Boolean = false
+
     constructor(
             ownerInternalName: String,
             needReification: Boolean,
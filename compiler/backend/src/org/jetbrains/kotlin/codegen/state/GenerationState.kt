@@ -70,7 +70,8 @@ class GenerationState @JvmOverloads constructor(
         val incrementalCompilationComponents: IncrementalCompilationComponents? = null,
         val progress: Progress = Progress.DEAF,
         private val onIndependentPartCompilationEnd: GenerationStateEventCallback = GenerationStateEventCallback.DO_NOTHING,
-        dumpBinarySignatureMappingTo: File? = null
+        dumpBinarySignatureMappingTo: File? = null,
+        disableInternalParamAssertions: Boolean = false
 ) {
     abstract class GenerateClassFilter {
         abstract fun shouldAnnotateClass(processingClassOrObject: KtClassOrObject): Boolean
@@ -142,6 +143,9 @@ class GenerationState @JvmOverloads constructor(
     val isParamAssertionsEnabled: Boolean = !disableParamAssertions
         @JvmName("isParamAssertionsEnabled") get
 
+    val isInternalParamAssertionsEnabled: Boolean = !disableInternalParamAssertions
+        @JvmName("isInternalParamAssertionsEnabled") get
+
     val isInlineEnabled: Boolean = !disableInline
         @JvmName("isInlineEnabled") get
 
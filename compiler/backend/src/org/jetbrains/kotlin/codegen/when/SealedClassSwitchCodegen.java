@@ -0,0 +1,170 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.when;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.ExpressionCodegen;
+import org.jetbrains.kotlin.descriptors.ClassDescriptor;
+import org.jetbrains.kotlin.descriptors.ClassKind;
+import org.jetbrains.kotlin.descriptors.ClassifierDescriptor;
+import org.jetbrains.kotlin.descriptors.Modality;
+import org.jetbrains.kotlin.psi.*;
+import org.jetbrains.kotlin.resolve.BindingContext;
+import org.jetbrains.kotlin.resolve.DescriptorUtils;
+import org.jetbrains.kotlin.types.KotlinType;
+import org.jetbrains.org.objectweb.asm.Label;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
+
+import java.util.*;
+
+/**
+ * Dispatches `when` over a sealed class subject with only `is`-checks against its final subclasses in constant time.
+ * The subject's class name hash is used as a key for a lookupswitch, and the class itself is then compared by identity.
+ * If nothing matches (e.g. the subject is null, or a class is no longer final because it was recompiled separately),
+ * control falls through to the usual chain of instanceof checks.
+ */
+public class SealedClassSwitchCodegen {
+    // For fewer checks a plain chain of instanceof is at least as fast as hashing the class name
+    private static final int MIN_CLASSES_FOR_SWITCH = 4;
+
+    private static final String GET_CLASS_DESC = Type.getMethodDescriptor(Type.getType(Class.class));
+    private static final String GET_NAME_DESC = Type.getMethodDescriptor(Type.getType(String.class));
+    private static final String HASH_CODE_DESC = Type.getMethodDescriptor(Type.INT_TYPE);
+
+    private final InstructionAdapter v;
+    private final Map<Type, Integer> classToEntryIndex;
+
+    private SealedClassSwitchCodegen(@NotNull ExpressionCodegen codegen, @NotNull Map<Type, Integer> classToEntryIndex) {
+        this.v = codegen.v;
+        this.classToEntryIndex = classToEntryIndex;
+    }
+
+    @Nullable
+    public static SealedClassSwitchCodegen buildIfPossible(@NotNull KtWhenExpression expression, @NotNull ExpressionCodegen codegen) {
+        KtExpression subject = expression.getSubjectExpression();
+        if (subject == null) return null;
+
+        BindingContext bindingContext = codegen.getBindingContext();
+        ClassDescriptor sealedClass = getClassDescriptor(bindingContext.getType(subject));
+        if (sealedClass == null || sealedClass.getModality() != Modality.SEALED) return null;
+
+        Map<Type, Integer> classToEntryIndex = new LinkedHashMap<Type, Integer>();
+        List<KtWhenEntry> entries = expression.getEntries();
+        for (int i = 0; i < entries.size(); i++) {
+            KtWhenEntry entry = entries.get(i);
+            if (entry.isElse()) continue;
+
+            for (KtWhenCondition condition : entry.getConditions()) {
+                if (!(condition instanceof KtWhenConditionIsPattern)) return null;
+
+                KtWhenConditionIsPattern isPattern = (KtWhenConditionIsPattern) condition;
+                if (isPattern.isNegated()) return null;
+
+                KotlinType type = bindingContext.get(BindingContext.TYPE, isPattern.getTypeReference());
+                if (type == null || type.isMarkedNullable()) return null;
+
+                ClassDescriptor subclass = getClassDescriptor(type);
+                if (subclass == null || !isFinalSubclass(subclass, sealedClass)) return null;
+
+                Type asmType = codegen.getState().getTypeMapper().mapClass(subclass);
+                if (!classToEntryIndex.containsKey(asmType)) {
+                    classToEntryIndex.put(asmType, i);
+                }
+            }
+        }
+
+        if (classToEntryIndex.size() < MIN_CLASSES_FOR_SWITCH) return null;
+
+        return new SealedClassSwitchCodegen(codegen, classToEntryIndex);
+    }
+
+    @Nullable
+    private static ClassDescriptor getClassDescriptor(@Nullable KotlinType type) {
+        if (type == null) return null;
+        ClassifierDescriptor descriptor = type.getConstructor().getDeclarationDescriptor();
+        return descriptor instanceof ClassDescriptor ? (ClassDescriptor) descriptor : null;
+    }
+
+    private static boolean isFinalSubclass(@NotNull ClassDescriptor subclass, @NotNull ClassDescriptor sealedClass) {
+        ClassKind kind = subclass.getKind();
+        return (kind == ClassKind.CLASS || kind == ClassKind.OBJECT) &&
+               subclass.getModality() == Modality.FINAL &&
+               DescriptorUtils.isSubclass(subclass, sealedClass);
+    }
+
+    /**
+     * Expects the subject to be stored in the given local. Jumps to the label of the first entry checking the subject's class,
+     * or continues right after the generated code if there's no such entry.
+     */
+    public void generate(int subjectLocal, @NotNull Type subjectType, @NotNull List<Label> entryLabels) {
+        Map<Integer, List<Type>> hashCodeToClasses = new TreeMap<Integer, List<Type>>();
+        for (Type type : classToEntryIndex.keySet()) {
+            int hashCode = type.getClassName().hashCode();
+            List<Type> classes = hashCodeToClasses.get(hashCode);
+            if (classes == null) {
+                classes = new ArrayList<Type>(1);
+                hashCodeToClasses.put(hashCode, classes);
+            }
+            classes.add(type);
+        }
+
+        Label fallback = new Label();
+
+        v.load(subjectLocal, subjectType);
+        v.ifnull(fallback);
+
+        v.load(subjectLocal, subjectType);
+        v.invokevirtual("java/lang/Object", "getClass", GET_CLASS_DESC, false);
+        v.invokevirtual("java/lang/Class", "getName", GET_NAME_DESC, false);
+        v.invokevirtual("java/lang/String", "hashCode", HASH_CODE_DESC, false);
+
+        int[] keys = new int[hashCodeToClasses.size()];
+        Label[] labels = new Label[keys.length];
+        int i = 0;
+        for (Integer hashCode : hashCodeToClasses.keySet()) {
+            keys[i] = hashCode;
+            labels[i] = new Label();
+            i++;
+        }
+
+        v.lookupswitch(fallback, keys, labels);
+
+        i = 0;
+        for (List<Type> classes : hashCodeToClasses.values()) {
+            v.visitLabel(labels[i++]);
+
+            for (Iterator<Type> iterator = classes.iterator(); iterator.hasNext(); ) {
+                Type type = iterator.next();
+                Label next = iterator.hasNext() ? new Label() : fallback;
+
+                v.load(subjectLocal, subjectType);
+                v.invokevirtual("java/lang/Object", "getClass", GET_CLASS_DESC, false);
+                v.tconst(type);
+                v.ifacmpne(next);
+                v.goTo(entryLabels.get(classToEntryIndex.get(type)));
+
+                if (next != fallback) {
+                    v.visitLabel(next);
+                }
+            }
+        }
+
+        v.visitLabel(fallback);
+    }
+}
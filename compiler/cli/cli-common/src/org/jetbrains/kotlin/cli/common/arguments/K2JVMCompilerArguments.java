@@ -58,6 +58,9 @@ public class K2JVMCompilerArguments extends CommonCompilerArguments {
     @Argument(value = "Xno-param-assertions", description = "Don't generate not-null assertions on parameters of methods accessible from Java")
     public boolean noParamAssertions;
 
+    @Argument(value = "Xno-internal-param-assertions", description = "Don't generate not-null assertions on parameters of internal methods, assuming they are not called from Java")
+    public boolean noInternalParamAssertions;
+
     @Argument(value = "Xno-optimize", description = "Disable optimizations")
     public boolean noOptimize;
 
@@ -120,6 +120,7 @@ open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
         configuration.put(JVMConfigurationKeys.MODULE_NAME, arguments.moduleName ?: JvmAbi.DEFAULT_MODULE_NAME)
 
         if (arguments.module == null && arguments.freeArgs.isEmpty() && !arguments.version) {
+            configuration.put(CLIConfigurationKeys.REPORT_PERF, arguments.reportPerf)
             ReplFromTerminal.run(rootDisposable, configuration)
             return ExitCode.OK
         }
@@ -277,6 +278,7 @@ open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
         private fun putAdvancedOptions(configuration: CompilerConfiguration, arguments: K2JVMCompilerArguments) {
             configuration.put(JVMConfigurationKeys.DISABLE_CALL_ASSERTIONS, arguments.noCallAssertions)
             configuration.put(JVMConfigurationKeys.DISABLE_PARAM_ASSERTIONS, arguments.noParamAssertions)
+            configuration.put(JVMConfigurationKeys.DISABLE_INTERNAL_PARAM_ASSERTIONS, arguments.noInternalParamAssertions)
             configuration.put(JVMConfigurationKeys.DISABLE_INLINE, arguments.noInline)
             configuration.put(JVMConfigurationKeys.DISABLE_OPTIMIZATION, arguments.noOptimize)
             configuration.put(JVMConfigurationKeys.DECLARATIONS_JSON_PATH, arguments.declarationsOutputPath)
@@ -31,6 +31,8 @@ public class JVMConfigurationKeys {
             CompilerConfigurationKey.create("disable not-null call assertions");
     public static final CompilerConfigurationKey<Boolean> DISABLE_PARAM_ASSERTIONS =
             CompilerConfigurationKey.create("disable not-null parameter assertions");
+    public static final CompilerConfigurationKey<Boolean> DISABLE_INTERNAL_PARAM_ASSERTIONS =
+            CompilerConfigurationKey.create("disable not-null parameter assertions for internal declarations");
     public static final CompilerConfigurationKey<Boolean> DISABLE_INLINE =
             CompilerConfigurationKey.create("disable inline");
     public static final CompilerConfigurationKey<Boolean> DISABLE_OPTIMIZATION =
@@ -24,8 +24,10 @@ import com.intellij.psi.PsiFileFactory
 import com.intellij.psi.impl.PsiFileFactoryImpl
 import com.intellij.psi.search.ProjectScope
 import com.intellij.testFramework.LightVirtualFile
+import org.jetbrains.kotlin.cli.common.CLIConfigurationKeys
 import org.jetbrains.kotlin.cli.common.messages.AnalyzerWithCompilerReport
 import org.jetbrains.kotlin.cli.common.messages.DiagnosticMessageReporter
+import org.jetbrains.kotlin.cli.jvm.K2JVMCompiler
 import org.jetbrains.kotlin.cli.jvm.compiler.CliLightClassGenerationSupport
 import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles
 import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider
@@ -65,12 +67,14 @@ import org.jetbrains.kotlin.script.KotlinScriptDefinition
 import org.jetbrains.kotlin.script.ScriptParameter
 import org.jetbrains.kotlin.script.ScriptPriorities
 import org.jetbrains.kotlin.script.StandardScriptDefinition
+import org.jetbrains.kotlin.util.PerformanceCounter
 import java.io.PrintWriter
 import java.net.URLClassLoader
+import java.util.concurrent.TimeUnit
 
 class ReplInterpreter(
         disposable: Disposable,
-        configuration: CompilerConfiguration,
+        private val configuration: CompilerConfiguration,
         private val ideMode: Boolean,
         private val replReader: ReplSystemInWrapper?
 ) {
@@ -78,6 +82,9 @@ class ReplInterpreter(
 
     private var lastLineScope: LexicalScope? = null
     private val earlierLines = arrayListOf<EarlierLine>()
+    private val earlierScriptDescriptors = arrayListOf<ScriptDescriptor>()
+    private val earlierScriptClasses = arrayListOf<Class<*>>()
+    private val earlierScriptInstances = arrayListOf<Any>()
     private val previousIncompleteLines = arrayListOf<String>()
     private val classLoader: ReplClassLoader
 
@@ -236,12 +243,14 @@ class ReplInterpreter(
 
         psiFile.script!!.putUserData(ScriptPriorities.PRIORITY_KEY, lineNumber)
 
+        val analysisStart = PerformanceCounter.currentTime()
         val scriptDescriptor = doAnalyze(psiFile, errorHolder)
                                ?: return LineResult.compileError(errorHolder.renderedDiagnostics)
 
+        val generationStart = PerformanceCounter.currentTime()
         val state = GenerationState(psiFile.project, ClassBuilderFactories.BINARIES, module, trace.bindingContext, listOf(psiFile))
 
-        compileScript(psiFile.script!!, earlierLines.map(EarlierLine::getScriptDescriptor), state, CompilationErrorHandler.THROW_EXCEPTION)
+        compileScript(psiFile.script!!, earlierScriptDescriptors, state, CompilationErrorHandler.THROW_EXCEPTION)
 
         for (outputFile in state.factory.asList()) {
             if (outputFile.relativePath.endsWith(".class")) {
@@ -251,10 +260,11 @@ class ReplInterpreter(
         }
 
         try {
+            val evaluationStart = PerformanceCounter.currentTime()
             val scriptClass = classLoader.loadClass("Line$lineNumber")
 
-            val constructorParams = earlierLines.map(EarlierLine::getScriptClass).toTypedArray()
-            val constructorArgs = earlierLines.map(EarlierLine::getScriptInstance).toTypedArray()
+            val constructorParams = earlierScriptClasses.toTypedArray()
+            val constructorArgs = earlierScriptInstances.toTypedArray()
 
             val scriptInstanceConstructor = scriptClass.getConstructor(*constructorParams)
             val scriptInstance = try {
@@ -272,6 +282,11 @@ class ReplInterpreter(
             val rv = rvField.get(scriptInstance)
 
             earlierLines.add(EarlierLine(line, scriptDescriptor, scriptClass, scriptInstance))
+            earlierScriptDescriptors.add(scriptDescriptor)
+            earlierScriptClasses.add(scriptClass)
+            earlierScriptInstances.add(scriptInstance)
+
+            reportLinePerf(analysisStart, generationStart, evaluationStart)
 
             return LineResult.successful(rv, !state.replSpecific.hasResult)
         }
@@ -302,6 +317,18 @@ class ReplInterpreter(
         }
     }
 
+    private fun reportLinePerf(analysisStart: Long, generationStart: Long, evaluationStart: Long) {
+        if (!configuration.get(CLIConfigurationKeys.REPORT_PERF, false)) return
+
+        val end = PerformanceCounter.currentTime()
+        fun millis(from: Long, to: Long) = TimeUnit.NANOSECONDS.toMillis(to - from)
+
+        K2JVMCompiler.reportPerf(configuration, "REPL: line $lineNumber " +
+                                                "analyzed in ${millis(analysisStart, generationStart)} ms, " +
+                                                "generated in ${millis(generationStart, evaluationStart)} ms, " +
+                                                "evaluated in ${millis(evaluationStart, end)} ms")
+    }
+
     fun dumpClasses(out: PrintWriter) {
         classLoader.dumpClasses(out)
     }
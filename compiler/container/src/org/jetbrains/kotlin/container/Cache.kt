@@ -39,6 +39,22 @@ fun Class<*>.getInfo(): ClassInfo {
     return ClassTraversalCache.getClassInfo(this)
 }
 
+/**
+ * Implicit components of a container depend only on the classes of its explicitly registered components,
+ * so containers composed from the same registrations (e.g. one per module or per file) can share them.
+ */
+internal object CompositionPlanCache {
+    private val cache = ContainerUtil.createConcurrentSoftValueMap<List<CompositionKey>, List<Class<*>>>()
+
+    fun getImplicitComponentClasses(key: List<CompositionKey>): List<Class<*>>? = cache.get(key)
+
+    fun putImplicitComponentClasses(key: List<CompositionKey>, classes: List<Class<*>>) {
+        cache.put(key, classes)
+    }
+}
+
+internal data class CompositionKey(val descriptorClass: Class<*>, val componentClass: Class<*>)
+
 data class ClassInfo(
         val constructorInfo: ConstructorInfo?,
         val setterInfos: List<SetterInfo>,
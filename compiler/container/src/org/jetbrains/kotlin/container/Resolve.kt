@@ -57,6 +57,10 @@ fun Method.bindToMethod(context: ValueResolveContext): MethodBinding {
     return MethodBinding(this, bindArguments(genericParameterTypes.toList(), context))
 }
 
+fun SetterInfo.bindToMethod(context: ValueResolveContext): MethodBinding {
+    return MethodBinding(method, method.bindArguments(parameters, context))
+}
+
 private fun Member.bindArguments(parameters: List<Type>, context: ValueResolveContext): List<ValueDescriptor> {
     val bound = ArrayList<ValueDescriptor>(parameters.size)
     var unsatisfied: MutableList<Type>? = null
@@ -111,19 +111,49 @@ class ComponentStorage(val myId: String) : ValueResolver {
             throw ContainerConsistencyException("Container $myId was already composed.")
 
         state = ComponentStorageState.Initialized
-        composeDescriptors(context, descriptors)
+        composeDescriptors(context, descriptors, isInitialComposition = true)
     }
 
-    private fun composeDescriptors(context: ComponentResolveContext, descriptors: Collection<ComponentDescriptor>) {
+    private fun composeDescriptors(
+            context: ComponentResolveContext,
+            descriptors: Collection<ComponentDescriptor>,
+            isInitialComposition: Boolean = false
+    ) {
         if (descriptors.isEmpty()) return
 
         registry.addAll(descriptors)
 
-        val implicits = inspectDependenciesAndRegisterAdhoc(context, descriptors)
+        val implicits =
+                if (isInitialComposition) registerAdhocUsingCompositionPlan(context, descriptors)
+                else inspectDependenciesAndRegisterAdhoc(context, descriptors)
 
         injectProperties(context, descriptors + implicits)
     }
 
+    // The registry is empty before the initial composition, so implicit components are determined by the descriptors only
+    private fun registerAdhocUsingCompositionPlan(context: ComponentResolveContext, descriptors: Collection<ComponentDescriptor>): Collection<ComponentDescriptor> {
+        val key = descriptors.map { it.compositionKey() ?: return inspectDependenciesAndRegisterAdhoc(context, descriptors) }
+
+        val implicitClasses = CompositionPlanCache.getImplicitComponentClasses(key)
+        if (implicitClasses != null) {
+            val adhoc = implicitClasses.mapTo(LinkedHashSet<ComponentDescriptor>()) {
+                ImplicitSingletonTypeComponentDescriptor(context.container, it)
+            }
+            registry.addAll(adhoc)
+            return adhoc
+        }
+
+        val adhoc = inspectDependenciesAndRegisterAdhoc(context, descriptors)
+        CompositionPlanCache.putImplicitComponentClasses(key, adhoc.map { (it as ImplicitSingletonTypeComponentDescriptor).klass })
+        return adhoc
+    }
+
+    private fun ComponentDescriptor.compositionKey(): CompositionKey? = when (this) {
+        is SingletonTypeComponentDescriptor -> CompositionKey(javaClass, klass)
+        is InstanceComponentDescriptor -> CompositionKey(javaClass, instance.javaClass)
+        else -> null
+    }
+
     private fun injectProperties(context: ComponentResolveContext, components: Collection<ComponentDescriptor>) {
         for (component in components) {
             if (component.shouldInjectProperties) {
@@ -173,7 +203,7 @@ class ComponentStorage(val myId: String) : ValueResolver {
         val classInfo = instance.javaClass.getInfo()
 
         classInfo.setterInfos.forEach { setterInfo ->
-            val methodBinding = setterInfo.method.bindToMethod(context)
+            val methodBinding = setterInfo.bindToMethod(context)
             methodBinding.invoke(instance)
         }
     }
@@ -268,4 +268,26 @@ class ComponentContainerTest {
         assertTrue(c is C)
     }
 
-}
\ No newline at end of file
+    @Test
+    fun should_discover_same_dependencies_for_same_registrations() {
+        class C
+
+        class B {
+            var c: C? = null
+                @Inject set
+        }
+
+        class A {
+            var b: B? = null
+                @Inject set
+        }
+
+        val first = createContainer("first") { useImpl<A>() }.get<A>()
+        val second = createContainer("second") { useImpl<A>() }.get<A>()
+
+        assertTrue(second.b is B)
+        assertTrue(second.b!!.c is C)
+        assertTrue(first.b !== second.b)
+        assertTrue(first.b!!.c !== second.b!!.c)
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import java.io.OutputStream
+import java.util.concurrent.TimeUnit
+
+/**
+ * Buffers the output sent to the daemon client, so that each remote call carries a large batch of messages.
+ * The buffer is sent when it is full or, on the next write, when the oldest buffered byte has been waiting longer than [maxDelayMs],
+ * so the client still sees the progress of a long compilation. The rest is sent by [flush] when the compilation ends.
+ * Everything is sent from the writing thread, so that a slow client can't block the daemon timer
+ * and the remote calls are counted by the profiler of the compilation thread.
+ */
+class BatchingOutputStream(
+        private val out: OutputStream,
+        bufferSize: Int = DEFAULT_BUFFER_SIZE,
+        private val maxDelayMs: Long = DEFAULT_MAX_DELAY_MS
+) : OutputStream() {
+    companion object {
+        val DEFAULT_BUFFER_SIZE = 64 * 1024
+        val DEFAULT_MAX_DELAY_MS = 200L
+    }
+
+    private val buffer = ByteArray(bufferSize)
+    private var count = 0
+    private var firstBufferedTime = 0L
+
+    @Synchronized
+    override fun write(byte: Int) {
+        if (count == buffer.size) {
+            flushBuffer()
+        }
+        markBuffered()
+        buffer[count++] = byte.toByte()
+        flushIfDelayed()
+    }
+
+    @Synchronized
+    override fun write(data: ByteArray, offset: Int, length: Int) {
+        if (length >= buffer.size) {
+            flushBuffer()
+            out.write(data, offset, length)
+            return
+        }
+        if (length > buffer.size - count) {
+            flushBuffer()
+        }
+        markBuffered()
+        System.arraycopy(data, offset, buffer, count, length)
+        count += length
+        flushIfDelayed()
+    }
+
+    @Synchronized
+    override fun flush() {
+        flushBuffer()
+        out.flush()
+    }
+
+    override fun close() {
+        flush()
+        out.close()
+    }
+
+    private fun markBuffered() {
+        if (count == 0) {
+            firstBufferedTime = System.nanoTime()
+        }
+    }
+
+    private fun flushIfDelayed() {
+        if (count > 0 && System.nanoTime() - firstBufferedTime > TimeUnit.MILLISECONDS.toNanos(maxDelayMs)) {
+            flushBuffer()
+        }
+    }
+
+    private fun flushBuffer() {
+        if (count > 0) {
+            out.write(buffer, 0, count)
+            count = 0
+        }
+    }
+}
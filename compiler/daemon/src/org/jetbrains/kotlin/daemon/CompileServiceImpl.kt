@@ -27,7 +27,6 @@ import org.jetbrains.kotlin.daemon.common.*
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus
 import org.jetbrains.kotlin.utils.addToStdlib.check
-import java.io.BufferedOutputStream
 import java.io.File
 import java.io.PrintStream
 import java.rmi.NoSuchObjectException
@@ -412,14 +411,17 @@ class CompileServiceImpl(
 
                 operationsTracer?.before("compile")
                 compilationsCounter.incrementAndGet()
-                val rpcProfiler = if (daemonOptions.reportPerf) WallAndThreadTotalProfiler() else DummyProfiler()
+                val rpcProfiler = if (daemonOptions.reportPerf) WallAndThreadByClassProfiler() else DummyProfiler()
                 val eventManger = EventMangerImpl()
-                val compilerMessagesStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(compilerMessagesStreamProxy, rpcProfiler), 4096))
-                val serviceOutputStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(serviceOutputStreamProxy, rpcProfiler), 4096))
+                val compilerMessagesStream = PrintStream(BatchingOutputStream(RemoteOutputStreamClient(compilerMessagesStreamProxy, rpcProfiler)))
+                val serviceOutputStream = PrintStream(BatchingOutputStream(RemoteOutputStreamClient(serviceOutputStreamProxy, rpcProfiler)))
                 try {
                     checkedCompile(args, serviceOutputStream, rpcProfiler) {
                         val res = body(compilerMessagesStream, eventManger, rpcProfiler).code
                         _lastUsedSeconds = nowSeconds()
+                        // the last batches are sent before the PERF report, so that their remote calls are counted
+                        compilerMessagesStream.flush()
+                        serviceOutputStream.flush()
                         res
                     }
                 }
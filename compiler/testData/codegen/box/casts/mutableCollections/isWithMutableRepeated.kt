@@ -0,0 +1,54 @@
+// WITH_RUNTIME
+
+import java.util.*
+
+class L : List<String> by ArrayList<String>()
+class ML : MutableList<String> by ArrayList<String>()
+class S : Set<String> by HashSet<String>()
+class M : Map<String, String> by HashMap<String, String>()
+
+fun isMutableList(x: Any) = x is MutableList<*>
+fun isMutableCollection(x: Any) = x is MutableCollection<*>
+fun isList(x: Any) = x is List<*>
+
+fun asMutableCollection(x: Any): String =
+        try {
+            x as MutableCollection<*>
+            "mutable"
+        }
+        catch (e: ClassCastException) {
+            "read-only"
+        }
+
+fun box(): String {
+    val values = listOf<Any>(L(), ML(), ArrayList<String>(), S(), HashSet<String>(), M(), "")
+    val expectedMutableList = listOf(false, true, true, false, false, false, false)
+    val expectedMutableCollection = listOf(false, true, true, false, true, false, false)
+    val expectedList = listOf(true, true, true, false, false, false, false)
+
+    // the same classes are checked several times against different types, so cached and computed results are both verified
+    for (iteration in 1..3) {
+        for (i in values.indices) {
+            val value = values[i]
+            if (isMutableList(value) != expectedMutableList[i]) return "Fail is MutableList: ${value.javaClass}"
+            if (isMutableCollection(value) != expectedMutableCollection[i]) return "Fail is MutableCollection: ${value.javaClass}"
+            if (isList(value) != expectedList[i]) return "Fail is List: ${value.javaClass}"
+        }
+    }
+
+    if (asMutableCollection(L()) != "read-only") return "Fail as MutableCollection: L"
+    if (asMutableCollection(ML()) != "mutable") return "Fail as MutableCollection: ML"
+    if (asMutableCollection(M()) != "read-only") return "Fail as MutableCollection: M"
+
+    val f1: Any = { x: Int -> x }
+    val f2: Any = { x: Int, y: Int -> x + y }
+    val r1: Any = String::length
+    for (iteration in 1..3) {
+        if (f1 !is Function1<*, *> || f1 is Function2<*, *, *>) return "Fail f1"
+        if (f2 !is Function2<*, *, *> || f2 is Function1<*, *>) return "Fail f2"
+        if (r1 !is Function1<*, *> || r1 is Function0<*>) return "Fail r1"
+        if (ArrayList<String>() is Function0<*>) return "Fail ArrayList"
+    }
+
+    return "OK"
+}
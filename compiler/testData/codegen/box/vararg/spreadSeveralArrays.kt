@@ -0,0 +1,40 @@
+// WITH_RUNTIME
+
+import kotlin.test.*
+
+fun <T> copyArray(vararg data: T): Array<out T> = data
+
+inline fun <reified T> reifiedCopyArray(vararg data: T): Array<out T> = data
+
+fun copyStringArray(vararg data: String): Array<out String> = data
+
+fun copyIntArray(vararg data: Int): IntArray = data
+
+fun copyBooleanArray(vararg data: Boolean): BooleanArray = data
+
+fun box(): String {
+    val a = arrayOf("a", "b")
+    val b = arrayOf("c")
+    val empty = arrayOf<String>()
+    val x = "x"
+
+    assertEquals(listOf("a", "b", "x", "c"), copyStringArray(*a, x, *b).toList())
+    assertEquals(listOf("x", "a", "b", "c", "x"), copyStringArray(x, *a, *empty, *b, x).toList())
+    assertEquals(listOf("a", "b", "x", "c"), copyArray(*a, x, *b).toList())
+    assertEquals(listOf("a", "b", "x", "c"), reifiedCopyArray(*a, x, *b).toList())
+    assertEquals(listOf<String>(), copyStringArray(*empty, *empty).toList())
+
+    val ints = intArrayOf(1, 2)
+    val copy = copyIntArray(0, *ints, 3, *ints)
+    ints[0] = 42
+    assertEquals(listOf(0, 1, 2, 3, 1, 2), copy.toList())
+
+    val booleans = booleanArrayOf(true)
+    assertEquals(listOf(false, true, true), copyBooleanArray(false, *booleans, *booleans).toList())
+
+    // the arguments following a spread one can modify the array, so it must be copied before they are evaluated
+    val modified = copyStringArray(*a, run { a[0] = "modified"; x }, *b)
+    assertEquals(listOf("a", "b", "x", "c"), modified.toList())
+
+    return "OK"
+}
@@ -0,0 +1,41 @@
+sealed class Expr {
+    class Const(val value: Int) : Expr()
+    class Neg(val arg: Expr) : Expr()
+    class Plus(val left: Expr, val right: Expr) : Expr()
+    class Times(val left: Expr, val right: Expr) : Expr()
+    class Minus(val left: Expr, val right: Expr) : Expr()
+    object Zero : Expr()
+    object One : Expr()
+}
+
+fun eval(e: Expr): Int = when (e) {
+    is Expr.Const -> e.value
+    is Expr.Neg -> -eval(e.arg)
+    is Expr.Plus -> eval(e.left) + eval(e.right)
+    is Expr.Times -> eval(e.left) * eval(e.right)
+    is Expr.Minus -> eval(e.left) - eval(e.right)
+    is Expr.Zero -> 0
+    is Expr.One -> 1
+}
+
+fun kind(e: Expr?): String = when (e) {
+    is Expr.Const, is Expr.Zero, is Expr.One -> "leaf"
+    is Expr.Plus, is Expr.Minus -> "additive"
+    is Expr.Times -> "multiplicative"
+    is Expr.Const -> "unreachable"
+    else -> "other"
+}
+
+fun box(): String {
+    val expr = Expr.Minus(Expr.Times(Expr.Plus(Expr.Const(2), Expr.One), Expr.Neg(Expr.Const(3))), Expr.Zero)
+    if (eval(expr) != -9) return "Fail eval: ${eval(expr)}"
+
+    if (kind(Expr.Const(1)) != "leaf") return "Fail Const"
+    if (kind(Expr.One) != "leaf") return "Fail One"
+    if (kind(Expr.Minus(Expr.Zero, Expr.Zero)) != "additive") return "Fail Minus"
+    if (kind(Expr.Times(Expr.Zero, Expr.Zero)) != "multiplicative") return "Fail Times"
+    if (kind(Expr.Neg(Expr.Zero)) != "other") return "Fail Neg"
+    if (kind(null) != "other") return "Fail null"
+
+    return "OK"
+}
@@ -0,0 +1,11 @@
+inline fun bar(crossinline y: () -> String) = { y() }
+
+fun test(): String {
+    val o = bar { "O" }
+    val k = bar { "K" }
+    return o() + k()
+}
+
+// 2 GETSTATIC NonCapturingRegeneratedLambdaKt\$test\$\$inlined\$bar\$[12]\.INSTANCE
+// 2 PUTSTATIC NonCapturingRegeneratedLambdaKt\$test\$\$inlined\$bar\$[12]\.INSTANCE
+// 2 NEW NonCapturingRegeneratedLambdaKt\$test\$\$inlined\$bar\$[12]
@@ -0,0 +1,13 @@
+fun strings(vararg data: String) = data
+
+fun ints(vararg data: Int) = data
+
+fun test(a: Array<String>, b: Array<String>, c: IntArray, x: String) {
+    strings(*a, x, *b)
+    ints(*c, 1, *c)
+    strings(*a, "literal")
+    strings(*a, "escaped\n", *b)
+}
+
+// 0 SpreadBuilder
+// 7 INVOKESTATIC java/lang/System.arraycopy
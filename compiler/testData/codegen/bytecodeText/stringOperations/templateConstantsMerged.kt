@@ -0,0 +1,9 @@
+fun test(a: Int, b: Long): String {
+    return "x=\"$a\", y=\"$b\""
+}
+
+// 1 NEW java/lang/StringBuilder
+// 1 INVOKESPECIAL java/lang/StringBuilder.<init> \(I\)V
+// 3 INVOKEVIRTUAL java/lang/StringBuilder.append \(Ljava/lang/String;\)
+// 1 INVOKEVIRTUAL java/lang/StringBuilder.append \(I\)
+// 1 INVOKEVIRTUAL java/lang/StringBuilder.append \(J\)
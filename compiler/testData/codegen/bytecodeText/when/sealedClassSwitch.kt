@@ -0,0 +1,24 @@
+sealed class Expr {
+    class Const(val value: Int) : Expr()
+    class Neg(val arg: Expr) : Expr()
+    class Plus(val left: Expr, val right: Expr) : Expr()
+    class Times(val left: Expr, val right: Expr) : Expr()
+    object Zero : Expr()
+}
+
+fun eval(e: Expr): Int = when (e) {
+    is Expr.Const -> e.value
+    is Expr.Neg -> -eval(e.arg)
+    is Expr.Plus -> eval(e.left) + eval(e.right)
+    is Expr.Times -> eval(e.left) * eval(e.right)
+    is Expr.Zero -> 0
+}
+
+fun fewBranches(e: Expr): Int = when (e) {
+    is Expr.Const -> 1
+    is Expr.Neg -> 2
+    else -> 3
+}
+
+// 1 LOOKUPSWITCH
+// 1 INVOKEVIRTUAL java/lang/Class.getName
@@ -0,0 +1,12 @@
+internal class A : java.util.Comparator<String> {
+    override fun compare(a: String, b: String): Int = 0
+}
+
+internal interface I {
+    fun foo(s: String)
+}
+
+internal class B : I {
+    override fun foo(s: String) {
+    }
+}
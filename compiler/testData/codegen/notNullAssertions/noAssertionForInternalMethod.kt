@@ -0,0 +1,14 @@
+internal class A {
+    fun foo(s: String) {
+    }
+}
+
+class B {
+    internal fun foo(s: String) {
+    }
+}
+
+class C {
+    fun foo(s: String) {
+    }
+}
@@ -26,7 +26,10 @@ import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
 import org.jetbrains.kotlin.cli.jvm.config.JVMConfigurationKeys;
 import org.jetbrains.kotlin.codegen.forTestCompile.ForTestCompileRuntime;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.state.GenerationStateEventCallback;
+import org.jetbrains.kotlin.codegen.state.Progress;
 import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.resolve.AnalyzingUtils;
 import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil;
 import org.jetbrains.kotlin.test.KotlinTestUtils;
@@ -39,6 +42,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertTrue;
@@ -68,7 +72,17 @@ public class CodegenTestUtil {
                 configuration.get(JVMConfigurationKeys.DISABLE_INLINE, false),
                 configuration.get(JVMConfigurationKeys.DISABLE_OPTIMIZATION, false),
                 /* useTypeTableInSerializer = */ false,
-                configuration.get(JVMConfigurationKeys.INHERIT_MULTIFILE_PARTS, false)
+                configuration.get(JVMConfigurationKeys.INHERIT_MULTIFILE_PARTS, false),
+                Collections.<FqName>emptySet(),
+                Collections.<FqName>emptySet(),
+                /* targetId = */ null,
+                /* moduleName = */ null,
+                /* outDirectory = */ null,
+                /* incrementalCompilationComponents = */ null,
+                Progress.DEAF,
+                GenerationStateEventCallback.Companion.getDO_NOTHING(),
+                /* dumpBinarySignatureMappingTo = */ null,
+                configuration.get(JVMConfigurationKeys.DISABLE_INTERNAL_PARAM_ASSERTIONS, false)
         );
 
         if (analysisResult.getShouldGenerateCode()) {
@@ -48,11 +48,21 @@ public class GenerateNotNullAssertionsTest extends CodegenTestCase {
     }
 
     private void setUpEnvironment(boolean disableCallAssertions, boolean disableParamAssertions, File... extraClassPath) {
+        setUpEnvironment(disableCallAssertions, disableParamAssertions, false, extraClassPath);
+    }
+
+    private void setUpEnvironment(
+            boolean disableCallAssertions,
+            boolean disableParamAssertions,
+            boolean disableInternalParamAssertions,
+            File... extraClassPath
+    ) {
         CompilerConfiguration configuration = KotlinTestUtils.compilerConfigurationForTests(
                 ConfigurationKind.JDK_ONLY, TestJdkKind.MOCK_JDK, extraClassPath);
 
         configuration.put(JVMConfigurationKeys.DISABLE_CALL_ASSERTIONS, disableCallAssertions);
         configuration.put(JVMConfigurationKeys.DISABLE_PARAM_ASSERTIONS, disableParamAssertions);
+        configuration.put(JVMConfigurationKeys.DISABLE_INTERNAL_PARAM_ASSERTIONS, disableInternalParamAssertions);
 
         myEnvironment = KotlinCoreEnvironment.createForTests(getTestRootDisposable(), configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES);
     }
@@ -131,6 +141,25 @@ public class GenerateNotNullAssertionsTest extends CodegenTestCase {
         assertNoIntrinsicsMethodIsCalled("A", true);
     }
 
+    public void testNoParamAssertionForInternalMethod() throws Exception {
+        setUpEnvironment(true, false, true);
+
+        loadSource("noAssertionForInternalMethod.kt");
+
+        assertNoIntrinsicsMethodIsCalled("A", true);
+        assertNoIntrinsicsMethodIsCalled("B", true);
+        assertTrue(generateToText().contains("checkParameterIsNotNull"));
+    }
+
+    public void testParamAssertionForInternalOverrideOfJavaMethod() throws Exception {
+        setUpEnvironment(true, false, true);
+
+        loadSource("assertionForInternalOverrideOfJavaMethod.kt");
+
+        assertNoIntrinsicsMethodIsCalled("B", true);
+        assertTrue(generateToText().contains("checkParameterIsNotNull"));
+    }
+
     public void testArrayListGet() {
         setUpEnvironment(false, false);
 
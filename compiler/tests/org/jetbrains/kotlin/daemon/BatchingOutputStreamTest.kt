@@ -0,0 +1,55 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import junit.framework.TestCase
+import java.io.ByteArrayOutputStream
+
+class BatchingOutputStreamTest : TestCase() {
+    fun testFlushesWhenBufferIsFull() {
+        val out = ByteArrayOutputStream()
+        val stream = BatchingOutputStream(out, bufferSize = 4, maxDelayMs = 60000L)
+
+        stream.write("abc".toByteArray())
+        assertEquals("", out.toString())
+
+        stream.write("de".toByteArray())
+        assertEquals("abc", out.toString())
+
+        stream.write("fghij".toByteArray())
+        assertEquals("abcdefghij", out.toString())
+
+        stream.flush()
+        assertEquals("abcdefghij", out.toString())
+    }
+
+    fun testFlushesOnWriteAfterDelay() {
+        val out = ByteArrayOutputStream()
+        val stream = BatchingOutputStream(out, bufferSize = 1024, maxDelayMs = 50L)
+
+        stream.write("abc".toByteArray())
+        Thread.sleep(100L)
+        assertEquals("", out.toString())
+
+        stream.write("d".toByteArray())
+        assertEquals("abcd", out.toString())
+
+        stream.write("e".toByteArray())
+        stream.close()
+        assertEquals("abcde", out.toString())
+    }
+}
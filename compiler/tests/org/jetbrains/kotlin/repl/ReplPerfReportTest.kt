@@ -0,0 +1,65 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.repl
+
+import org.jetbrains.kotlin.cli.common.CLIConfigurationKeys
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageLocation
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity
+import org.jetbrains.kotlin.cli.common.messages.MessageCollector
+import org.jetbrains.kotlin.cli.jvm.repl.ReplInterpreter
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.jetbrains.kotlin.test.TestJdkKind
+import org.jetbrains.kotlin.test.testFramework.KtUsefulTestCase
+import java.util.*
+
+class ReplPerfReportTest : KtUsefulTestCase() {
+    init {
+        System.setProperty("java.awt.headless", "true")
+    }
+
+    private fun evalLines(reportPerf: Boolean, vararg lines: String): List<String> {
+        val messages = ArrayList<String>()
+        val configuration = KotlinTestUtils.compilerConfigurationForTests(ConfigurationKind.ALL, TestJdkKind.MOCK_JDK)
+        configuration.put(CLIConfigurationKeys.REPORT_PERF, reportPerf)
+        configuration.put(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, object : MessageCollector {
+            override fun report(severity: CompilerMessageSeverity, message: String, location: CompilerMessageLocation) {
+                messages.add(message)
+            }
+        })
+
+        val repl = ReplInterpreter(testRootDisposable!!, configuration, false, null)
+        for (line in lines) {
+            assertEquals(ReplInterpreter.LineResultType.SUCCESS, repl.eval(line).type)
+        }
+        return messages.filter { it.startsWith("PERF: REPL:") }
+    }
+
+    fun testEachLineIsReported() {
+        val perfMessages = evalLines(true, "val x = 1", "val y = x + 1", "y")
+
+        assertEquals(3, perfMessages.size)
+        for ((index, message) in perfMessages.withIndex()) {
+            assertTrue(message, message.matches(Regex("PERF: REPL: line ${index + 1} analyzed in \\d+ ms, " +
+                                                      "generated in \\d+ ms, evaluated in \\d+ ms")))
+        }
+    }
+
+    fun testNothingIsReportedByDefault() {
+        assertEmpty(evalLines(false, "val x = 1", "x"))
+    }
+}
@@ -20,10 +20,163 @@ import kotlin.Function;
 import kotlin.jvm.functions.*;
 import kotlin.jvm.internal.markers.*;
 
+import java.lang.ref.WeakReference;
 import java.util.*;
 
 @SuppressWarnings("unused")
 public class TypeIntrinsics {
+    // For each of the collection interfaces there are two kinds: the object is an instance of a mutable collection
+    // (a Java collection or a Kotlin one implementing the mutable marker), or it is a read-only Kotlin collection.
+    private static final int MUTABLE_ITERATOR = 1;
+    private static final int READ_ONLY_ITERATOR = 1 << 1;
+    private static final int MUTABLE_LIST_ITERATOR = 1 << 2;
+    private static final int READ_ONLY_LIST_ITERATOR = 1 << 3;
+    private static final int MUTABLE_ITERABLE = 1 << 4;
+    private static final int READ_ONLY_ITERABLE = 1 << 5;
+    private static final int MUTABLE_COLLECTION = 1 << 6;
+    private static final int READ_ONLY_COLLECTION = 1 << 7;
+    private static final int MUTABLE_LIST = 1 << 8;
+    private static final int READ_ONLY_LIST = 1 << 9;
+    private static final int MUTABLE_SET = 1 << 10;
+    private static final int READ_ONLY_SET = 1 << 11;
+    private static final int MUTABLE_MAP = 1 << 12;
+    private static final int READ_ONLY_MAP = 1 << 13;
+    private static final int MUTABLE_MAP_ENTRY = 1 << 14;
+    private static final int READ_ONLY_MAP_ENTRY = 1 << 15;
+    private static final int FUNCTION = 1 << 16;
+    // function arity + 1 is stored in the highest bits, 0 means that the class is not a FunctionN
+    private static final int ARITY_SHIFT = 17;
+
+    private static final Class<?>[] FUNCTION_CLASSES = {
+            Function0.class, Function1.class, Function2.class, Function3.class, Function4.class, Function5.class,
+            Function6.class, Function7.class, Function8.class, Function9.class, Function10.class, Function11.class,
+            Function12.class, Function13.class, Function14.class, Function15.class, Function16.class, Function17.class,
+            Function18.class, Function19.class, Function20.class, Function21.class, Function22.class
+    };
+
+    // the mutable kinds, each of them is computed together with the next bit, the corresponding read-only kind
+    private static final int MUTABLE_KINDS = MUTABLE_ITERATOR | MUTABLE_LIST_ITERATOR | MUTABLE_ITERABLE | MUTABLE_COLLECTION |
+                                             MUTABLE_LIST | MUTABLE_SET | MUTABLE_MAP | MUTABLE_MAP_ENTRY;
+    // marks that the arity is computed, the arity itself takes this bit and the ones above it
+    private static final int ARITY = 1 << ARITY_SHIFT;
+
+    private static final int CLASS_KINDS_CACHE_SIZE = 2048;
+
+    /**
+     * Two-way set-associative cache of the kinds of the recently checked classes, indexed by the identity hash code of a class.
+     * Interface checks of the objects of many different classes are slow, because the JVM has to scan
+     * the interfaces of a class and the single-entry cache of a class is overwritten by checks against other interfaces.
+     * Each entry computes only the kinds that have been requested for its class, so a miss costs a few interface checks.
+     * When more classes are checked than fit in the cache, the kinds are computed without allocating entries for most of them.
+     * The entries are read and replaced without synchronization: a thread that sees an outdated entry or an outdated state
+     * of an entry computes the kind again. The classes are weakly referenced not to retain class loaders.
+     */
+    private static final ClassKinds[] classKindsCache = new ClassKinds[CLASS_KINDS_CACHE_SIZE];
+    private static final int[] missedClassHashCodes = new int[CLASS_KINDS_CACHE_SIZE / 2];
+
+    private static final class ClassKinds extends WeakReference<Class<?>> {
+        // the computed kinds in the upper half and the kinds of the class in the lower half,
+        // a single volatile field makes every thread see the kinds consistent with the mask of the computed ones
+        volatile long state;
+
+        ClassKinds(Class<?> klass) {
+            super(klass);
+        }
+    }
+
+    private static boolean hasKind(Object obj, int kind) {
+        return obj != null && (classKinds(obj.getClass(), kind) & kind) != 0;
+    }
+
+    private static int classKinds(Class<?> klass, int kind) {
+        ClassKinds entry = classKindsEntry(klass);
+        if (entry == null) {
+            return computeClassKinds(klass, kind);
+        }
+        long state = entry.state;
+        int computed = (int) (state >>> 32);
+        int kinds = (int) state;
+        if ((computed & kind) == 0) {
+            kinds |= computeClassKinds(klass, kind);
+            computed |= kind < FUNCTION ? kindPair(kind) : kind;
+            entry.state = ((long) computed << 32) | (kinds & 0xFFFFFFFFL);
+        }
+        return kinds;
+    }
+
+    private static ClassKinds classKindsEntry(Class<?> klass) {
+        int hashCode = System.identityHashCode(klass);
+        int index = hashCode & (CLASS_KINDS_CACHE_SIZE - 2);
+        ClassKinds first = classKindsCache[index];
+        if (first != null && first.get() == klass) {
+            return first;
+        }
+        ClassKinds second = classKindsCache[index + 1];
+        if (second != null && second.get() == klass) {
+            return second;
+        }
+
+        // a class gets an entry only on its second miss with no other class missing in the same set in between,
+        // so that a stream of many different classes doesn't allocate an entry for each of them only to evict it before its next use
+        if (missedClassHashCodes[index >> 1] != hashCode) {
+            missedClassHashCodes[index >> 1] = hashCode;
+            return null;
+        }
+
+        // the new class takes the first way, and the class it replaces is moved to the second one
+        ClassKinds entry = new ClassKinds(klass);
+        classKindsCache[index + 1] = first;
+        classKindsCache[index] = entry;
+        return entry;
+    }
+
+    private static int kindPair(int kind) {
+        return (kind & MUTABLE_KINDS) != 0 ? kind | (kind << 1) : kind | (kind >>> 1);
+    }
+
+    private static int computeClassKinds(Class<?> klass, int kind) {
+        if (kind == FUNCTION) {
+            return Function.class.isAssignableFrom(klass) ? FUNCTION : 0;
+        }
+        if (kind == ARITY) {
+            for (int arity = 0; arity < FUNCTION_CLASSES.length; arity++) {
+                if (FUNCTION_CLASSES[arity].isAssignableFrom(klass)) {
+                    return (arity + 1) << ARITY_SHIFT;
+                }
+            }
+            return 0;
+        }
+
+        switch (kindPair(kind)) {
+            case MUTABLE_ITERATOR | READ_ONLY_ITERATOR:
+                return collectionKinds(klass, Iterator.class, KMutableIterator.class, MUTABLE_ITERATOR);
+            case MUTABLE_LIST_ITERATOR | READ_ONLY_LIST_ITERATOR:
+                return collectionKinds(klass, ListIterator.class, KMutableListIterator.class, MUTABLE_LIST_ITERATOR);
+            case MUTABLE_ITERABLE | READ_ONLY_ITERABLE:
+                return collectionKinds(klass, Iterable.class, KMutableIterable.class, MUTABLE_ITERABLE);
+            case MUTABLE_COLLECTION | READ_ONLY_COLLECTION:
+                return collectionKinds(klass, Collection.class, KMutableCollection.class, MUTABLE_COLLECTION);
+            case MUTABLE_LIST | READ_ONLY_LIST:
+                return collectionKinds(klass, List.class, KMutableList.class, MUTABLE_LIST);
+            case MUTABLE_SET | READ_ONLY_SET:
+                return collectionKinds(klass, Set.class, KMutableSet.class, MUTABLE_SET);
+            case MUTABLE_MAP | READ_ONLY_MAP:
+                return collectionKinds(klass, Map.class, KMutableMap.class, MUTABLE_MAP);
+            case MUTABLE_MAP_ENTRY | READ_ONLY_MAP_ENTRY:
+                return collectionKinds(klass, Map.Entry.class, KMutableMap.Entry.class, MUTABLE_MAP_ENTRY);
+            default:
+                throw new IllegalArgumentException("Unknown kind: " + kind);
+        }
+    }
+
+    private static int collectionKinds(Class<?> klass, Class<?> collectionClass, Class<?> mutableMarkerClass, int mutableKind) {
+        if (KMappedMarker.class.isAssignableFrom(klass) && !mutableMarkerClass.isAssignableFrom(klass)) {
+            // the read-only kind is the next bit after the mutable one
+            return mutableKind << 1;
+        }
+        return collectionClass.isAssignableFrom(klass) ? mutableKind : 0;
+    }
+
     private static <T extends Throwable> T sanitizeStackTrace(T throwable) {
         return Intrinsics.sanitizeStackTrace(throwable, TypeIntrinsics.class.getName());
     }
@@ -42,19 +195,18 @@ public class TypeIntrinsics {
     }
 
     public static boolean isMutableIterator(Object obj) {
-        return obj instanceof Iterator &&
-               (!(obj instanceof KMappedMarker) || obj instanceof KMutableIterator);
+        return hasKind(obj, MUTABLE_ITERATOR);
     }
 
     public static Iterator asMutableIterator(Object obj) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableIterator)) {
+        if (hasKind(obj, READ_ONLY_ITERATOR)) {
             throwCce(obj, "kotlin.collections.MutableIterator");
         }
         return castToIterator(obj);
     }
 
     public static Iterator asMutableIterator(Object obj, String message) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableIterator)) {
+        if (hasKind(obj, READ_ONLY_ITERATOR)) {
             throwCce(message);
         }
         return castToIterator(obj);
@@ -70,19 +222,18 @@ public class TypeIntrinsics {
     }
 
     public static boolean isMutableListIterator(Object obj) {
-        return obj instanceof ListIterator &&
-               (!(obj instanceof KMappedMarker) || obj instanceof KMutableListIterator);
+        return hasKind(obj, MUTABLE_LIST_ITERATOR);
     }
 
     public static ListIterator asMutableListIterator(Object obj) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableListIterator)) {
+        if (hasKind(obj, READ_ONLY_LIST_ITERATOR)) {
             throwCce(obj, "kotlin.collections.MutableListIterator");
         }
         return castToListIterator(obj);
     }
 
     public static ListIterator asMutableListIterator(Object obj, String message) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableListIterator)) {
+        if (hasKind(obj, READ_ONLY_LIST_ITERATOR)) {
             throwCce(message);
         }
         return castToListIterator(obj);
@@ -98,19 +249,18 @@ public class TypeIntrinsics {
     }
 
     public static boolean isMutableIterable(Object obj) {
-        return obj instanceof Iterable &&
-               (!(obj instanceof KMappedMarker) || obj instanceof KMutableIterable);
+        return hasKind(obj, MUTABLE_ITERABLE);
     }
 
     public static Iterable asMutableIterable(Object obj) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableIterable)) {
+        if (hasKind(obj, READ_ONLY_ITERABLE)) {
             throwCce(obj, "kotlin.collections.MutableIterable");
         }
         return castToIterable(obj);
     }
 
     public static Iterable asMutableIterable(Object obj, String message) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableIterable)) {
+        if (hasKind(obj, READ_ONLY_ITERABLE)) {
             throwCce(message);
         }
         return castToIterable(obj);
@@ -126,19 +276,18 @@ public class TypeIntrinsics {
     }
 
     public static boolean isMutableCollection(Object obj) {
-        return obj instanceof Collection &&
-               (!(obj instanceof KMappedMarker) || obj instanceof KMutableCollection);
+        return hasKind(obj, MUTABLE_COLLECTION);
     }
 
     public static Collection asMutableCollection(Object obj) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableCollection)) {
+        if (hasKind(obj, READ_ONLY_COLLECTION)) {
             throwCce(obj, "kotlin.collections.MutableCollection");
         }
         return castToCollection(obj);
     }
 
     public static Collection asMutableCollection(Object obj, String message) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableCollection)) {
+        if (hasKind(obj, READ_ONLY_COLLECTION)) {
             throwCce(message);
         }
         return castToCollection(obj);
@@ -154,19 +303,18 @@ public class TypeIntrinsics {
     }
 
     public static boolean isMutableList(Object obj) {
-        return obj instanceof List &&
-               (!(obj instanceof KMappedMarker) || obj instanceof KMutableList);
+        return hasKind(obj, MUTABLE_LIST);
     }
 
     public static List asMutableList(Object obj) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableList)) {
+        if (hasKind(obj, READ_ONLY_LIST)) {
             throwCce(obj, "kotlin.collections.MutableList");
         }
         return castToList(obj);
     }
 
     public static List asMutableList(Object obj, String message) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableList)) {
+        if (hasKind(obj, READ_ONLY_LIST)) {
             throwCce(message);
         }
         return castToList(obj);
@@ -182,19 +330,18 @@ public class TypeIntrinsics {
     }
 
     public static boolean isMutableSet(Object obj) {
-        return obj instanceof Set &&
-               (!(obj instanceof KMappedMarker) || obj instanceof KMutableSet);
+        return hasKind(obj, MUTABLE_SET);
     }
 
     public static Set asMutableSet(Object obj) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableSet)) {
+        if (hasKind(obj, READ_ONLY_SET)) {
             throwCce(obj, "kotlin.collections.MutableSet");
         }
         return castToSet(obj);
     }
 
     public static Set asMutableSet(Object obj, String message) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableSet)) {
+        if (hasKind(obj, READ_ONLY_SET)) {
             throwCce(message);
         }
         return castToSet(obj);
@@ -210,19 +357,18 @@ public class TypeIntrinsics {
     }
 
     public static boolean isMutableMap(Object obj) {
-        return obj instanceof Map &&
-               (!(obj instanceof KMappedMarker) || obj instanceof KMutableMap);
+        return hasKind(obj, MUTABLE_MAP);
     }
 
     public static Map asMutableMap(Object obj) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableMap)) {
+        if (hasKind(obj, READ_ONLY_MAP)) {
             throwCce(obj, "kotlin.collections.MutableMap");
         }
         return castToMap(obj);
     }
 
     public static Map asMutableMap(Object obj, String message) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableMap)) {
+        if (hasKind(obj, READ_ONLY_MAP)) {
             throwCce(message);
         }
         return castToMap(obj);
@@ -238,19 +384,18 @@ public class TypeIntrinsics {
     }
 
     public static boolean isMutableMapEntry(Object obj) {
-        return obj instanceof Map.Entry &&
-               (!(obj instanceof KMappedMarker) || obj instanceof KMutableMap.Entry);
+        return hasKind(obj, MUTABLE_MAP_ENTRY);
     }
 
     public static Map.Entry asMutableMapEntry(Object obj) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableMap.Entry)) {
+        if (hasKind(obj, READ_ONLY_MAP_ENTRY)) {
             throwCce(obj, "kotlin.collections.MutableMap.MutableEntry");
         }
         return castToMapEntry(obj);
     }
 
     public static Map.Entry asMutableMapEntry(Object obj, String message) {
-        if (obj instanceof KMappedMarker && !(obj instanceof KMutableMap.Entry)) {
+        if (hasKind(obj, READ_ONLY_MAP_ENTRY)) {
             throwCce(message);
         }
         return castToMapEntry(obj);
@@ -267,84 +412,19 @@ public class TypeIntrinsics {
 
     public static int getFunctionArity(Object obj) {
         if (obj instanceof FunctionImpl) {
+            // the arity of a function reference is not known from its class
             return ((FunctionImpl) obj).getArity();
         }
-        else if (obj instanceof Function0) {
-            return 0;
-        }
-        else if (obj instanceof Function1) {
-            return 1;
-        }
-        else if (obj instanceof Function2) {
-            return 2;
-        }
-        else if (obj instanceof Function3) {
-            return 3;
-        }
-        else if (obj instanceof Function4) {
-            return 4;
-        }
-        else if (obj instanceof Function5) {
-            return 5;
-        }
-        else if (obj instanceof Function6) {
-            return 6;
-        }
-        else if (obj instanceof Function7) {
-            return 7;
-        }
-        else if (obj instanceof Function8) {
-            return 8;
-        }
-        else if (obj instanceof Function9) {
-            return 9;
-        }
-        else if (obj instanceof Function10) {
-            return 10;
-        }
-        else if (obj instanceof Function11) {
-            return 11;
-        }
-        else if (obj instanceof Function12) {
-            return 12;
-        }
-        else if (obj instanceof Function13) {
-            return 13;
-        }
-        else if (obj instanceof Function14) {
-            return 14;
-        }
-        else if (obj instanceof Function15) {
-            return 15;
-        }
-        else if (obj instanceof Function16) {
-            return 16;
-        }
-        else if (obj instanceof Function17) {
-            return 17;
-        }
-        else if (obj instanceof Function18) {
-            return 18;
-        }
-        else if (obj instanceof Function19) {
-            return 19;
-        }
-        else if (obj instanceof Function20) {
-            return 20;
-        }
-        else if (obj instanceof Function21) {
-            return 21;
-        }
-        else if (obj instanceof Function22) {
-            return 22;
+        else if (obj == null) {
+            return -1;
         }
         else {
-            return -1;
+            return (classKinds(obj.getClass(), ARITY) >>> ARITY_SHIFT) - 1;
         }
     }
 
     public static boolean isFunctionOfArity(Object obj, int arity) {
-        return obj instanceof Function && getFunctionArity(obj) == arity;
+        return hasKind(obj, FUNCTION) && getFunctionArity(obj) == arity;
     }
 
     public static Object beforeCheckcastToFunctionOfArity(Object obj, int arity) {
@@ -143,9 +143,11 @@ class SingleInstructionInterpreter(private val eval: Eval) : Interpreter<Value>(
                 null
             }
 
-            // TODO: switch
             TABLESWITCH,
-            LOOKUPSWITCH -> throw UnsupportedByteCodeException("Switch is not supported yet")
+            LOOKUPSWITCH -> {
+                // Handled by interpreter loop
+                null
+            }
 
             PUTSTATIC -> {
                 eval.setStaticField(FieldDescription(insn as FieldInsnNode), value)
@@ -161,9 +161,23 @@ fun interpreterLoop(
                             continue@loop
                         }
 
-                        // TODO: switch
-                        LOOKUPSWITCH -> UnsupportedByteCodeException("LOOKUPSWITCH is not supported yet")
-                        TABLESWITCH -> UnsupportedByteCodeException("TABLESWITCH is not supported yet")
+                        TABLESWITCH -> {
+                            val switchNode = currentInsn as TableSwitchInsnNode
+                            val key = frame.getStackTop().int
+                            frame.execute(currentInsn, interpreter)
+                            val index = key - switchNode.min
+                            goto(if (key >= switchNode.min && key <= switchNode.max) switchNode.labels[index] else switchNode.dflt)
+                            continue@loop
+                        }
+
+                        LOOKUPSWITCH -> {
+                            val switchNode = currentInsn as LookupSwitchInsnNode
+                            val key = frame.getStackTop().int
+                            frame.execute(currentInsn, interpreter)
+                            val index = switchNode.keys.indexOf(key)
+                            goto(if (index >= 0) switchNode.labels[index] else switchNode.dflt)
+                            continue@loop
+                        }
 
                         IRETURN, LRETURN, FRETURN, DRETURN, ARETURN -> {
                             val value = frame.getStackTop()
@@ -784,6 +784,35 @@ class TestData extends BaseTestData {
         return b[1];
     }
 
+    static int tableSwitch() {
+        int sum = 0;
+        for (int i = -1; i < 6; i++) {
+            switch (i) {
+                case 0: sum += 1; break;
+                case 1: sum += 10; break;
+                case 2: sum += 100;
+                case 3: sum += 1000; break;
+                case 4: sum += 10000; break;
+                default: sum += 100000;
+            }
+        }
+        return sum;
+    }
+
+    static int lookupSwitch() {
+        int sum = 0;
+        for (int i = -1; i < 6; i++) {
+            switch (i * 1000) {
+                case 0: sum += 1; break;
+                case 1000: sum += 10; break;
+                case 3000: sum += 100;
+                case 100000: sum += 1000; break;
+                default: sum += 10000;
+            }
+        }
+        return sum;
+    }
+
     @IgnoreInReflectionTests
     public static void invokeMethodWithArrayOfInterfaces() {
         BaseToArray[] c = new BaseToArray[1];
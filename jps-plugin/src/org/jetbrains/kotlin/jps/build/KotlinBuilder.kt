@@ -70,6 +70,7 @@ import org.jetbrains.kotlin.utils.keysToMap
 import org.jetbrains.org.objectweb.asm.ClassReader
 import java.io.File
 import java.util.*
+import java.util.concurrent.TimeUnit
 
 class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
     companion object {
@@ -79,6 +80,7 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
     }
 
     private val statisticsLogger = TeamcityStatisticsLogger()
+    private val lookupStorageUpdater = LookupStorageUpdater()
 
     override fun getPresentableName() = KOTLIN_BUILDER_NAME
 
@@ -97,6 +99,7 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
     }
 
     override fun buildFinished(context: CompileContext?) {
+        lookupStorageUpdater.shutdown()
         statisticsLogger.reportTotal()
     }
 
@@ -224,7 +227,9 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
         val outputItemCollector = doCompileModuleChunk(allCompiledFiles, chunk, commonArguments, context, dirtyFilesHolder,
                                                        environment, filesToCompile, incrementalCaches, messageCollector, project)
 
-        statisticsLogger.registerStatistic(chunk, System.nanoTime() - start)
+        val compilationTime = System.nanoTime() - start
+        statisticsLogger.registerStatistic(chunk, compilationTime)
+        LOG.info("Compiling ${chunk.presentableShortName} took ${TimeUnit.NANOSECONDS.toMillis(compilationTime)} ms")
 
         if (outputItemCollector == null) {
             return NOTHING_DONE
@@ -268,14 +273,24 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
 
         context.checkCanceled()
 
-        val changesInfo = updateKotlinIncrementalCache(compilationErrors, incrementalCaches, generatedFiles)
+        // lookups of previously compiled chunks are needed to find dirty files
+        logTime("Waiting for lookup storage updates", chunk) { lookupStorageUpdater.waitForUpdates() }
         updateLookupStorage(chunk, lookupTracker, dataManager, dirtyFilesHolder, filesToCompile)
 
+        val changesInfo = logTime("Updating incremental caches", chunk) {
+            updateKotlinIncrementalCache(compilationErrors, incrementalCaches, generatedFiles)
+        }
+
         if (isChunkRebuilding) {
             return OK
         }
 
-        processChanges(filesToCompile.values().toSet(), allCompiledFiles, dataManager, incrementalCaches.values, changesInfo, fsOperations)
+        // dirty files are found via the lookups of this chunk too, so they must be updated by now
+        logTime("Waiting for lookup storage updates", chunk) { lookupStorageUpdater.waitForUpdates() }
+
+        logTime("Processing changes", chunk) {
+            processChanges(filesToCompile.values().toSet(), allCompiledFiles, dataManager, incrementalCaches.values, changesInfo, fsOperations)
+        }
         incrementalCaches.values.forEach { it.cleanDirtyInlineFunctions() }
 
         return OK
@@ -315,6 +330,7 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
                         rebuildAfterCacheVersionChanged[target] = true
                     }
 
+                    lookupStorageUpdater.waitForUpdates()
                     dataManager.getStorage(KotlinDataContainerTarget, JpsLookupStorageProvider).clean()
                     return
                 }
@@ -347,6 +363,7 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
                 }
                 CacheVersion.Action.CLEAN_DATA_CONTAINER -> {
                     LOG.info("Clearing lookup cache")
+                    lookupStorageUpdater.waitForUpdates()
                     dataManager.getStorage(KotlinDataContainerTarget, JpsLookupStorageProvider).clean()
                     cacheVersionsProvider.dataContainerVersion().clean()
                 }
@@ -575,9 +592,26 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
         val lookupStorage = dataManager.getStorage(KotlinDataContainerTarget, JpsLookupStorageProvider)
 
         val removedFiles = chunk.targets.flatMap { KotlinSourceFileCollector.getRemovedKotlinFiles(dirtyFilesHolder, it) }
-        lookupStorage.removeLookupsFrom(filesToCompile.values().asSequence() + removedFiles.asSequence())
+        val filesToRemove = filesToCompile.values() + removedFiles
+
+        // the storage is updated in background while the incremental caches are updated,
+        // the update is awaited before the changes are processed
+        lookupStorageUpdater.submit {
+            logTime("Updating lookup storage", chunk) {
+                lookupStorage.removeLookupsFrom(filesToRemove.asSequence())
+                lookupStorage.addAll(lookupTracker.lookups.entrySet(), lookupTracker.pathInterner.values)
+            }
+        }
+    }
 
-        lookupStorage.addAll(lookupTracker.lookups.entrySet(), lookupTracker.pathInterner.values)
+    private inline fun <T> logTime(phase: String, chunk: ModuleChunk, body: () -> T): T {
+        val start = System.nanoTime()
+        try {
+            return body()
+        }
+        finally {
+            LOG.info("$phase for ${chunk.presentableShortName} took ${TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)} ms")
+        }
     }
 
     // if null is returned, nothing was done
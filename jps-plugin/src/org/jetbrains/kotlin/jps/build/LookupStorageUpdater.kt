@@ -0,0 +1,67 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.jps.build
+
+import java.util.*
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+/**
+ * Writes lookups of compiled chunks to the lookup storage on a background thread, so that the next chunk can be compiled meanwhile.
+ * Updates are applied in the order they were submitted; [waitForUpdates] must be called before the storage is read or cleaned.
+ */
+class LookupStorageUpdater {
+    private var executor: ExecutorService? = null
+    private val pendingUpdates = ArrayList<Future<*>>()
+
+    @Synchronized
+    fun submit(update: () -> Unit) {
+        val executor = executor ?: Executors.newSingleThreadExecutor {
+            Thread(it, "Kotlin lookup storage updater").apply { isDaemon = true }
+        }.apply { executor = this }
+
+        pendingUpdates.add(executor.submit(Runnable { update() }))
+    }
+
+    fun waitForUpdates() {
+        val updates = synchronized(this) {
+            val result = ArrayList(pendingUpdates)
+            pendingUpdates.clear()
+            result
+        }
+
+        for (update in updates) {
+            try {
+                update.get()
+            }
+            catch (e: ExecutionException) {
+                throw e.cause ?: e
+            }
+        }
+    }
+
+    fun shutdown() {
+        waitForUpdates()
+
+        synchronized(this) {
+            executor?.shutdown()
+            executor = null
+        }
+    }
+}
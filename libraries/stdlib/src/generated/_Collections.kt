@@ -2039,8 +2039,16 @@ public fun Iterable<Double>.average(): Double {
 @kotlin.jvm.JvmName("sumOfByte")
 public fun Iterable<Byte>.sum(): Int {
     var sum: Int = 0
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is ByteIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextByte()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -2051,8 +2059,16 @@ public fun Iterable<Byte>.sum(): Int {
 @kotlin.jvm.JvmName("sumOfShort")
 public fun Iterable<Short>.sum(): Int {
     var sum: Int = 0
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is ShortIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextShort()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -2063,8 +2079,16 @@ public fun Iterable<Short>.sum(): Int {
 @kotlin.jvm.JvmName("sumOfInt")
 public fun Iterable<Int>.sum(): Int {
     var sum: Int = 0
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is IntIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextInt()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -2075,8 +2099,16 @@ public fun Iterable<Int>.sum(): Int {
 @kotlin.jvm.JvmName("sumOfLong")
 public fun Iterable<Long>.sum(): Long {
     var sum: Long = 0L
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is LongIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextLong()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -2087,8 +2119,16 @@ public fun Iterable<Long>.sum(): Long {
 @kotlin.jvm.JvmName("sumOfFloat")
 public fun Iterable<Float>.sum(): Float {
     var sum: Float = 0.0f
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is FloatIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextFloat()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -2099,8 +2139,16 @@ public fun Iterable<Float>.sum(): Float {
 @kotlin.jvm.JvmName("sumOfDouble")
 public fun Iterable<Double>.sum(): Double {
     var sum: Double = 0.0
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is DoubleIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextDouble()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -307,6 +307,7 @@ public fun <T> Sequence<T>.dropWhile(predicate: (T) -> Boolean): Sequence<T> {
  * Returns a sequence containing only elements matching the given [predicate].
  */
 public fun <T> Sequence<T>.filter(predicate: (T) -> Boolean): Sequence<T> {
+    if (this is FilterMapSequence) return this.filter(true, predicate)
     return FilteringSequence(this, true, predicate)
 }
 
@@ -352,6 +353,7 @@ public inline fun <reified R, C : MutableCollection<in R>> Sequence<*>.filterIsI
  * Returns a sequence containing all elements not matching the given [predicate].
  */
 public fun <T> Sequence<T>.filterNot(predicate: (T) -> Boolean): Sequence<T> {
+    if (this is FilterMapSequence) return this.filter(false, predicate)
     return FilteringSequence(this, false, predicate)
 }
 
@@ -651,6 +653,7 @@ public inline fun <T, K, V, M : MutableMap<in K, MutableList<V>>> Sequence<T>.gr
  * to each element in the original sequence.
  */
 public fun <T, R> Sequence<T>.map(transform: (T) -> R): Sequence<R> {
+    if (this is FilterMapSequence) return this.map(transform)
     return TransformingSequence(this, transform)
 }
 
@@ -1308,8 +1311,16 @@ public fun Sequence<Double>.average(): Double {
 @kotlin.jvm.JvmName("sumOfByte")
 public fun Sequence<Byte>.sum(): Int {
     var sum: Int = 0
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is ByteIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextByte()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -1320,8 +1331,16 @@ public fun Sequence<Byte>.sum(): Int {
 @kotlin.jvm.JvmName("sumOfShort")
 public fun Sequence<Short>.sum(): Int {
     var sum: Int = 0
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is ShortIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextShort()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -1332,8 +1351,16 @@ public fun Sequence<Short>.sum(): Int {
 @kotlin.jvm.JvmName("sumOfInt")
 public fun Sequence<Int>.sum(): Int {
     var sum: Int = 0
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is IntIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextInt()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -1344,8 +1371,16 @@ public fun Sequence<Int>.sum(): Int {
 @kotlin.jvm.JvmName("sumOfLong")
 public fun Sequence<Long>.sum(): Long {
     var sum: Long = 0L
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is LongIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextLong()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -1356,8 +1391,16 @@ public fun Sequence<Long>.sum(): Long {
 @kotlin.jvm.JvmName("sumOfFloat")
 public fun Sequence<Float>.sum(): Float {
     var sum: Float = 0.0f
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is FloatIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextFloat()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
@@ -1368,8 +1411,16 @@ public fun Sequence<Float>.sum(): Float {
 @kotlin.jvm.JvmName("sumOfDouble")
 public fun Sequence<Double>.sum(): Double {
     var sum: Double = 0.0
-    for (element in this) {
-        sum += element
+    val iterator = iterator()
+    if (iterator is DoubleIterator) {
+        while (iterator.hasNext()) {
+            sum += iterator.nextDouble()
+        }
+    }
+    else {
+        for (element in iterator) {
+            sum += element
+        }
     }
     return sum
 }
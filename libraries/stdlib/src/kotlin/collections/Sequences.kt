@@ -58,6 +58,9 @@ private fun <T, R> Sequence<T>.flatten(iterator: (T) -> Iterator<R>): Sequence<R
     if (this is TransformingSequence<*, *>) {
         return (this as TransformingSequence<*, T>).flatten(iterator)
     }
+    if (this is FilteringTransformingSequence<*, *>) {
+        return (this as FilteringTransformingSequence<*, T>).flatten(iterator)
+    }
     return FlatteningSequence(this, { it }, iterator)
 }
 
@@ -86,7 +89,13 @@ public fun <T, R> Sequence<Pair<T, R>>.unzip(): Pair<List<T>, List<R>> {
 internal class FilteringSequence<T>(private val sequence: Sequence<T>,
                                   private val sendWhen: Boolean = true,
                                   private val predicate: (T) -> Boolean
-                                 ) : Sequence<T> {
+                                 ) : FilterMapSequence<T> {
+
+    override fun filter(sendWhen: Boolean, predicate: (T) -> Boolean): Sequence<T> =
+            FilteringSequence(sequence, true, { this.predicate(it) == this.sendWhen && predicate(it) == sendWhen })
+
+    override fun <R> map(transform: (T) -> R): Sequence<R> =
+            FilteringTransformingSequence(sequence, { predicate(it) == sendWhen }, transform, null)
 
     override fun iterator(): Iterator<T> = object : Iterator<T> {
         val iterator = sequence.iterator()
@@ -130,7 +139,13 @@ internal class FilteringSequence<T>(private val sequence: Sequence<T>,
  */
 
 internal class TransformingSequence<T, R>
-constructor(private val sequence: Sequence<T>, private val transformer: (T) -> R) : Sequence<R> {
+constructor(private val sequence: Sequence<T>, private val transformer: (T) -> R) : FilterMapSequence<R> {
+    override fun filter(sendWhen: Boolean, predicate: (R) -> Boolean): Sequence<R> =
+            FilteringTransformingSequence(sequence, null, transformer, { predicate(it) == sendWhen })
+
+    override fun <E> map(transform: (R) -> E): Sequence<E> =
+            TransformingSequence(sequence, { transform(transformer(it)) })
+
     override fun iterator(): Iterator<R> = object : Iterator<R> {
         val iterator = sequence.iterator()
         override fun next(): R {
@@ -147,6 +162,79 @@ constructor(private val sequence: Sequence<T>, private val transformer: (T) -> R
     }
 }
 
+/**
+ * A sequence which returns the results of applying the given [transformer] function to the values
+ * in the underlying [sequence] that match the optional [preFilter] predicate, and then drops the results
+ * that do not match the optional [postFilter] predicate.
+ * It is the same as a chain of [FilteringSequence] and [TransformingSequence], but uses a single iterator.
+ * Further filters are fused into the [postFilter], and further maps into the [transformer] as long as there is no [postFilter];
+ * a map applied after a [postFilter] starts a new [TransformingSequence] over this sequence.
+ */
+internal class FilteringTransformingSequence<T, R>(private val sequence: Sequence<T>,
+                                                   private val preFilter: ((T) -> Boolean)?,
+                                                   private val transformer: (T) -> R,
+                                                   private val postFilter: ((R) -> Boolean)?
+                                                  ) : FilterMapSequence<R> {
+
+    override fun filter(sendWhen: Boolean, predicate: (R) -> Boolean): Sequence<R> {
+        val postFilter = postFilter ?: return FilteringTransformingSequence(sequence, preFilter, transformer, { predicate(it) == sendWhen })
+        return FilteringTransformingSequence(sequence, preFilter, transformer, { postFilter(it) && predicate(it) == sendWhen })
+    }
+
+    override fun <E> map(transform: (R) -> E): Sequence<E> {
+        if (postFilter != null) return TransformingSequence(this, transform)
+        return FilteringTransformingSequence(sequence, preFilter, { transform(transformer(it)) }, null)
+    }
+
+    override fun iterator(): Iterator<R> = object : Iterator<R> {
+        val iterator = sequence.iterator()
+        var nextState: Int = -1 // -1 for unknown, 0 for done, 1 for continue
+        // without a postFilter the item is transformed only in next(), as a TransformingSequence does
+        var nextItem: Any? = null
+
+        private fun calcNext() {
+            while (iterator.hasNext()) {
+                val item = iterator.next()
+                if (preFilter != null && !preFilter(item)) continue
+                if (postFilter == null) {
+                    nextItem = item
+                    nextState = 1
+                    return
+                }
+                val result = transformer(item)
+                if (!postFilter(result)) continue
+                nextItem = result
+                nextState = 1
+                return
+            }
+            nextState = 0
+        }
+
+        override fun next(): R {
+            if (nextState == -1)
+                calcNext()
+            if (nextState == 0)
+                throw NoSuchElementException()
+            val result = nextItem
+            nextItem = null
+            nextState = -1
+            return if (postFilter == null) transformer(result as T) else result as R
+        }
+
+        override fun hasNext(): Boolean {
+            if (nextState == -1)
+                calcNext()
+            return nextState == 1
+        }
+    }
+
+    internal fun <E> flatten(iterator: (R) -> Iterator<E>): Sequence<E> {
+        if (postFilter != null) return FlatteningSequence(this, { it }, iterator)
+        val source = if (preFilter == null) sequence else FilteringSequence(sequence, true, preFilter)
+        return FlatteningSequence<T, R, E>(source, transformer, iterator)
+    }
+}
+
 /**
  * A sequence which returns the results of applying the given [transformer] function to the values
  * in the underlying [sequence], where the transformer function takes the index of the value in the underlying
@@ -250,6 +338,15 @@ internal class FlatteningSequence<T, R, E>
     }
 }
 
+/**
+ * A sequence that supports filter and map operations fused with its own transformation,
+ * so that a chain of them iterates the underlying sequence with a single iterator
+ */
+internal interface FilterMapSequence<T> : Sequence<T> {
+    fun filter(sendWhen: Boolean, predicate: (T) -> Boolean): Sequence<T>
+    fun <R> map(transform: (T) -> R): Sequence<R>
+}
+
 /**
  * A sequence that supports drop(n) and take(n) operations
  */
@@ -0,0 +1,257 @@
+@file:JvmVersion
+@file:JvmName("ParallelKt")
+package kotlin.collections.parallel
+
+import java.util.ArrayList
+import java.util.Comparator
+import java.util.LinkedHashMap
+import java.util.RandomAccess
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.comparisons.compareBy
+
+/**
+ * Returns a list containing the results of applying the given [transform] function
+ * to each element in the original list.
+ *
+ * The [transform] function is invoked concurrently from several threads, the order of the results is the same
+ * as the order of the elements.
+ */
+public fun <T, R> List<T>.parallelMap(transform: (T) -> R): List<R> {
+    val source = randomAccess()
+    return computeInChunks(source.size) { from, to -> source.subList(from, to).map(transform) }.flatten()
+}
+
+/**
+ * Returns a list containing the results of applying the given [transform] function
+ * to each element in the original array.
+ *
+ * The [transform] function is invoked concurrently from several threads, the order of the results is the same
+ * as the order of the elements.
+ */
+public fun <T, R> Array<out T>.parallelMap(transform: (T) -> R): List<R> = asList().parallelMap(transform)
+
+/**
+ * Returns a list containing only elements matching the given [predicate], in their original order.
+ *
+ * The [predicate] is invoked concurrently from several threads.
+ */
+public fun <T> List<T>.parallelFilter(predicate: (T) -> Boolean): List<T> {
+    val source = randomAccess()
+    return computeInChunks(source.size) { from, to -> source.subList(from, to).filter(predicate) }.flatten()
+}
+
+/**
+ * Returns a list containing only elements matching the given [predicate], in their original order.
+ *
+ * The [predicate] is invoked concurrently from several threads.
+ */
+public fun <T> Array<out T>.parallelFilter(predicate: (T) -> Boolean): List<T> = asList().parallelFilter(predicate)
+
+/**
+ * Performs the given [action] on each element.
+ *
+ * The [action] is invoked concurrently from several threads in no particular order,
+ * the function returns when it has been performed on all elements.
+ */
+public fun <T> List<T>.parallelForEach(action: (T) -> Unit) {
+    val source = randomAccess()
+    computeInChunks(source.size) { from, to -> for (index in from..to - 1) action(source[index]) }
+}
+
+/**
+ * Performs the given [action] on each element.
+ *
+ * The [action] is invoked concurrently from several threads in no particular order,
+ * the function returns when it has been performed on all elements.
+ */
+public fun <T> Array<out T>.parallelForEach(action: (T) -> Unit) {
+    asList().parallelForEach(action)
+}
+
+/**
+ * Returns the sum of all values produced by [selector] function applied to each element in the list.
+ *
+ * The [selector] is invoked concurrently from several threads.
+ */
+public fun <T> List<T>.parallelSumBy(selector: (T) -> Int): Int {
+    val source = randomAccess()
+    return computeInChunks(source.size) { from, to -> source.subList(from, to).sumBy(selector) }.sum()
+}
+
+/**
+ * Returns the sum of all values produced by [selector] function applied to each element in the array.
+ *
+ * The [selector] is invoked concurrently from several threads.
+ */
+public fun <T> Array<out T>.parallelSumBy(selector: (T) -> Int): Int = asList().parallelSumBy(selector)
+
+/**
+ * Groups elements of the original list by the key returned by the given [keySelector] function
+ * and returns a map where each group key is associated with a list of corresponding elements.
+ *
+ * The result is the same as of [groupBy]: both the keys and the elements of each group are in the order
+ * of their occurrence in the original list. The [keySelector] is invoked concurrently from several threads.
+ */
+public fun <T, K> List<T>.parallelGroupBy(keySelector: (T) -> K): Map<K, List<T>> {
+    val source = randomAccess()
+    val result = LinkedHashMap<K, MutableList<T>>()
+    for (chunk in computeInChunks(source.size) { from, to -> source.subList(from, to).groupBy(keySelector) }) {
+        for ((key, elements) in chunk) {
+            result.getOrPut(key) { ArrayList<T>() }.addAll(elements)
+        }
+    }
+    return result
+}
+
+/**
+ * Groups elements of the original array by the key returned by the given [keySelector] function
+ * and returns a map where each group key is associated with a list of corresponding elements.
+ *
+ * The result is the same as of [groupBy]: both the keys and the elements of each group are in the order
+ * of their occurrence in the original array. The [keySelector] is invoked concurrently from several threads.
+ */
+public fun <T, K> Array<out T>.parallelGroupBy(keySelector: (T) -> K): Map<K, List<T>> = asList().parallelGroupBy(keySelector)
+
+/**
+ * Returns a list of all elements sorted according to natural sort order of the value returned by specified [selector] function.
+ *
+ * The sort is stable, so the result is the same as of [sortedBy]. The [selector] is invoked concurrently from several threads.
+ * The chunks are sorted concurrently and then merged pairwise, the last rounds of merging have fewer runs than threads
+ * and the final one merges the two halves of the list on a single thread.
+ */
+public fun <T, R : Comparable<R>> List<T>.parallelSortedBy(selector: (T) -> R?): List<T> {
+    val source = randomAccess()
+    val comparator = compareBy(selector)
+    var runs = computeInChunks(source.size) { from, to -> source.subList(from, to).sortedWith(comparator) }
+    while (runs.size > 1) {
+        val merged = runs
+        runs = computeInChunks((merged.size + 1) / 2, minChunkSize = 1) { from, to ->
+            (from..to - 1).map { mergeSorted(merged[2 * it], merged.getOrNull(2 * it + 1), comparator) }
+        }.flatten()
+    }
+    return runs.single()
+}
+
+/**
+ * Returns a list of all elements sorted according to natural sort order of the value returned by specified [selector] function.
+ *
+ * The sort is stable, so the result is the same as of [sortedBy]. The [selector] is invoked concurrently from several threads.
+ */
+public fun <T, R : Comparable<R>> Array<out T>.parallelSortedBy(selector: (T) -> R?): List<T> = asList().parallelSortedBy(selector)
+
+/**
+ * Returns the sum of all elements in the array, computed concurrently from several threads.
+ */
+public fun IntArray.parallelSum(): Int =
+        computeInChunks(size) { from, to ->
+            var sum = 0
+            for (index in from..to - 1) sum += this[index]
+            sum
+        }.sum()
+
+/**
+ * Returns the sum of all elements in the array, computed concurrently from several threads.
+ */
+public fun LongArray.parallelSum(): Long =
+        computeInChunks(size) { from, to ->
+            var sum = 0L
+            for (index in from..to - 1) sum += this[index]
+            sum
+        }.sum()
+
+/**
+ * Returns the sum of all elements in the array, computed concurrently from several threads.
+ *
+ * The elements are summed up in chunks depending on the number of available processors,
+ * so the rounding error may differ from the one of [sum].
+ */
+public fun DoubleArray.parallelSum(): Double =
+        computeInChunks(size) { from, to ->
+            var sum = 0.0
+            for (index in from..to - 1) sum += this[index]
+            sum
+        }.sum()
+
+private const val CHUNKS_PER_THREAD = 4
+
+// smaller inputs are not worth the cost of submitting tasks to the executor
+private const val MIN_CHUNK_SIZE = 1024
+
+private class ParallelWorker(task: Runnable, name: String) : Thread(task, name)
+
+private object ParallelExecutor {
+    private val threadCounter = AtomicInteger()
+
+    val parallelism = Runtime.getRuntime().availableProcessors()
+
+    val executor: ExecutorService = Executors.newFixedThreadPool(parallelism, ThreadFactory { task ->
+        ParallelWorker(task, "kotlin-parallel-${threadCounter.incrementAndGet()}").apply { isDaemon = true }
+    })
+}
+
+/**
+ * Splits the range `[0, size)` into consecutive chunks of at least [minChunkSize] elements and computes [chunkResult]
+ * for each of them on the shared executor, the calling thread takes the first chunk itself.
+ * The results are returned in the order of the chunks.
+ *
+ * Calls made from a worker thread are computed in place, so that nested parallel operations cannot exhaust the pool.
+ */
+private fun <R> computeInChunks(size: Int, minChunkSize: Int = MIN_CHUNK_SIZE, chunkResult: (from: Int, to: Int) -> R): List<R> {
+    val chunkCount = if (Thread.currentThread() is ParallelWorker) 1 else Math.min(size / minChunkSize, ParallelExecutor.parallelism * CHUNKS_PER_THREAD)
+    if (chunkCount <= 1) return listOf(chunkResult(0, size))
+
+    fun chunkStart(index: Int) = (size.toLong() * index / chunkCount).toInt()
+
+    val futures = ArrayList<Future<R>>(chunkCount - 1)
+    try {
+        for (index in 1..chunkCount - 1) {
+            val from = chunkStart(index)
+            val to = chunkStart(index + 1)
+            futures.add(ParallelExecutor.executor.submit(Callable { chunkResult(from, to) }))
+        }
+
+        val results = ArrayList<R>(chunkCount)
+        results.add(chunkResult(0, chunkStart(1)))
+        for (future in futures) {
+            results.add(future.get())
+        }
+        return results
+    }
+    catch (e: ExecutionException) {
+        throw e.cause ?: e
+    }
+    finally {
+        // does nothing for completed chunks, skips the rest if one of the chunks has failed
+        for (future in futures) {
+            future.cancel(false)
+        }
+    }
+}
+
+private fun <T> List<T>.randomAccess(): List<T> = if (this is RandomAccess) this else toList()
+
+private fun <T> mergeSorted(left: List<T>, right: List<T>?, comparator: Comparator<in T>): List<T> {
+    if (right == null) return left
+
+    val result = ArrayList<T>(left.size + right.size)
+    var leftIndex = 0
+    var rightIndex = 0
+    while (leftIndex < left.size && rightIndex < right.size) {
+        // elements of the left run go first when equal to keep the sort stable
+        if (comparator.compare(left[leftIndex], right[rightIndex]) <= 0) {
+            result.add(left[leftIndex++])
+        }
+        else {
+            result.add(right[rightIndex++])
+        }
+    }
+    result.addAll(left.subList(leftIndex, left.size))
+    result.addAll(right.subList(rightIndex, right.size))
+    return result
+}
@@ -5,7 +5,12 @@ package kotlin.io
 
 import java.io.*
 import java.util.*
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.channels.FileChannel
 import java.nio.charset.Charset
+import java.nio.charset.CharsetDecoder
+import java.nio.charset.CodingErrorAction
 
 
 /**
@@ -184,3 +189,113 @@ public fun File.readLines(charset: Charset = Charsets.UTF_8): List<String> {
  */
 public inline fun <T> File.useLines(charset: Charset = Charsets.UTF_8, block: (Sequence<String>) -> T): T =
         bufferedReader(charset).use { block(it.lineSequence()) }
+
+/**
+ * Maps the given region of this file into memory and returns it as a read-only [ByteBuffer].
+ *
+ * The content is not copied to the heap: the operating system loads the pages of the file when they are accessed,
+ * so you can use this function for huge files. The file is closed when the function returns, the mapping remains
+ * valid until the buffer is garbage collected.
+ *
+ * @param position the position in the file at which the region starts.
+ * @param size the size of the region, it can't be greater than [Int.MAX_VALUE].
+ */
+public fun File.mapBytes(position: Long = 0, size: Long = length() - position): ByteBuffer =
+        RandomAccessFile(this, "r").use { it.channel.map(FileChannel.MapMode.READ_ONLY, position, size) }
+
+/**
+ * Returns a sequence of the lines of this file decoded using the specified [charset].
+ *
+ * The file is decoded straight from memory-mapped regions of it instead of being read through a stream,
+ * which avoids copying its content to the heap, and is opened anew every time the sequence is iterated.
+ * Malformed input is replaced with the charset's default replacement.
+ *
+ * You may use this function on huge files.
+ *
+ * @param charset character set to use. By default uses UTF-8 charset.
+ */
+public fun File.mappedLineSequence(charset: Charset = Charsets.UTF_8): Sequence<String> =
+        Sequence { MappedLinesIterator(this, charset) }
+
+private const val MAPPED_REGION_SIZE: Long = 64L * 1024 * 1024
+
+private class MappedLinesIterator(private val file: File, charset: Charset) : AbstractIterator<String>() {
+    private val fileLength = file.length()
+    private val decoder: CharsetDecoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+
+    private var bytes: ByteBuffer = ByteBuffer.allocate(0)
+    // position of the start of [bytes] in the file
+    private var bytesStart = 0L
+    private var endOfInput = false
+    private var decodingFinished = false
+
+    private val chars = CharBuffer.allocate(DEFAULT_BUFFER_SIZE).apply { flip() }
+    private var skipLineFeed = false
+
+    override fun computeNext() {
+        var pending: StringBuilder? = null
+        while (true) {
+            if (!chars.hasRemaining() && !readChars()) {
+                if (pending != null) setNext(pending.toString()) else done()
+                return
+            }
+
+            val array = chars.array()
+            val start = chars.position()
+            if (skipLineFeed) {
+                skipLineFeed = false
+                if (array[start] == '\n') {
+                    chars.position(start + 1)
+                    continue
+                }
+            }
+
+            val end = chars.limit()
+            var index = start
+            while (index < end && array[index] != '\n' && array[index] != '\r') index++
+
+            if (index == end) {
+                // the line continues in the next portion of chars
+                if (pending == null) pending = StringBuilder()
+                pending.append(array, start, end - start)
+                chars.position(end)
+                continue
+            }
+
+            skipLineFeed = array[index] == '\r'
+            chars.position(index + 1)
+            setNext(if (pending == null) String(array, start, index - start) else pending.append(array, start, index - start).toString())
+            return
+        }
+    }
+
+    private fun readChars(): Boolean {
+        if (decodingFinished) return false
+
+        chars.clear()
+        while (chars.position() == 0) {
+            val result = decoder.decode(bytes, chars, endOfInput)
+            if (result.isUnderflow) {
+                if (endOfInput) {
+                    decoder.flush(chars)
+                    decodingFinished = true
+                    break
+                }
+                mapNextRegion()
+            }
+        }
+        chars.flip()
+        return chars.hasRemaining()
+    }
+
+    private fun mapNextRegion() {
+        // bytes of a character split by the end of the region are mapped again with the next one
+        val position = bytesStart + bytes.position()
+        val size = Math.min(fileLength - position, MAPPED_REGION_SIZE)
+        bytes = file.mapBytes(position, size)
+        bytesStart = position
+        endOfInput = position + size >= fileLength
+    }
+}
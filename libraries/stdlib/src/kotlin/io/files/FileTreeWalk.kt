@@ -111,8 +111,10 @@ public class FileTreeWalk private constructor(
                 state.pop()
                 return gotoNext()
             } else {
-                // Check that file/directory matches the filter
-                if (file == topState.root || !file.isDirectory || state.size >= maxDepth) {
+                // Check that file/directory matches the filter.
+                // The root is the same instance that was pushed, and the depth is checked first
+                // to avoid querying the file system for the entries which are not entered anyway
+                if (file === topState.root || state.size >= maxDepth || !file.isDirectory) {
                     // Proceed to a root directory or a simple file
                     return file
                 } else {
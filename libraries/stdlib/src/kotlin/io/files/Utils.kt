@@ -4,6 +4,7 @@
 package kotlin.io
 
 import java.io.*
+import java.nio.channels.FileChannel
 import java.util.*
 
 /**
@@ -165,7 +166,7 @@ private fun File.toRelativeStringOrNull(base: File): String? {
  * If you want to copy directory including its contents, use [copyRecursively].
  *
  * @param overwrite `true` if destination overwrite is allowed.
- * @param bufferSize the buffer size to use when copying.
+ * @param bufferSize the buffer size to use when copying the content which can't be transferred between the file channels directly.
  * @return the [target] file.
  * @throws NoSuchFileException if the source file doesn't exist.
  * @throws FileAlreadyExistsException if the destination file already exists and 'rewrite' argument is set to `false`.
@@ -194,6 +195,8 @@ public fun File.copyTo(target: File, overwrite: Boolean = false, bufferSize: Int
 
         this.inputStream().use { input ->
             target.outputStream().use { output ->
+                input.channel.transferAllTo(output.channel)
+                // special files may report no size to the channel, the rest of them is copied through the buffer
                 input.copyTo(output, bufferSize)
             }
         }
@@ -202,6 +205,21 @@ public fun File.copyTo(target: File, overwrite: Boolean = false, bufferSize: Int
     return target
 }
 
+/**
+ * Transfers all the bytes from the current position of this channel up to its size to the [target] channel
+ * without copying them to the heap where the platform allows that.
+ */
+private fun FileChannel.transferAllTo(target: FileChannel) {
+    var position = position()
+    val size = size()
+    while (position < size) {
+        val transferred = transferTo(position, size - position, target)
+        if (transferred <= 0) break
+        position += transferred
+    }
+    position(position)
+}
+
 /**
  * Enum that can be used to specify behaviour of the `copyRecursively()` function
  * in exceptional conditions.
@@ -20,6 +20,7 @@
 
 package kotlin.text
 
+import java.util.ArrayList
 import java.util.NoSuchElementException
 import kotlin.text.MatchResult
 import kotlin.text.Regex
@@ -1150,8 +1151,16 @@ public fun CharSequence.splitToSequence(vararg delimiters: String, ignoreCase: B
  * the beginning to the end of this string, and matches at each position the first element in [delimiters]
  * that is equal to a delimiter in this instance at that position.
  */
-public fun CharSequence.split(vararg delimiters: String, ignoreCase: Boolean = false, limit: Int = 0): List<String> =
-        rangesDelimitedBy(delimiters, ignoreCase = ignoreCase, limit = limit).asIterable().map { substring(it) }
+public fun CharSequence.split(vararg delimiters: String, ignoreCase: Boolean = false, limit: Int = 0): List<String> {
+    if (delimiters.size == 1) {
+        val delimiter = delimiters[0]
+        if (!delimiter.isEmpty()) {
+            return splitByLiteral(delimiter, ignoreCase, limit)
+        }
+    }
+
+    return rangesDelimitedBy(delimiters, ignoreCase = ignoreCase, limit = limit).asIterable().map { substring(it) }
+}
 
 /**
  * Splits this char sequence to a sequence of strings around occurrences of the specified [delimiters].
@@ -1170,8 +1179,40 @@ public fun CharSequence.splitToSequence(vararg delimiters: Char, ignoreCase: Boo
  * @param ignoreCase `true` to ignore character case when matching a delimiter. By default `false`.
  * @param limit The maximum number of substrings to return.
  */
-public fun CharSequence.split(vararg delimiters: Char, ignoreCase: Boolean = false, limit: Int = 0): List<String> =
-        rangesDelimitedBy(delimiters, ignoreCase = ignoreCase, limit = limit).asIterable().map { substring(it) }
+public fun CharSequence.split(vararg delimiters: Char, ignoreCase: Boolean = false, limit: Int = 0): List<String> {
+    if (delimiters.size == 1) {
+        return splitByLiteral(delimiters[0].toString(), ignoreCase, limit)
+    }
+
+    return rangesDelimitedBy(delimiters, ignoreCase = ignoreCase, limit = limit).asIterable().map { substring(it) }
+}
+
+/**
+ * Splits this char sequence around occurrences of a single non-empty [delimiter] by searching for it directly,
+ * without building the sequence of delimited ranges.
+ */
+private fun CharSequence.splitByLiteral(delimiter: String, ignoreCase: Boolean, limit: Int): List<String> {
+    require(limit >= 0, { "Limit must be non-negative, but was $limit." })
+
+    var currentOffset = 0
+    var nextIndex = indexOf(delimiter, currentOffset, ignoreCase)
+    if (nextIndex == -1 || limit == 1) {
+        return listOf(this.toString())
+    }
+
+    val isLimited = limit > 0
+    val result = ArrayList<String>(if (isLimited) limit.coerceAtMost(10) else 10)
+    do {
+        result.add(substring(currentOffset, nextIndex))
+        currentOffset = nextIndex + delimiter.length
+        // the rest of the string is the last substring when the limit is reached
+        if (isLimited && result.size == limit - 1) break
+        nextIndex = indexOf(delimiter, currentOffset, ignoreCase)
+    } while (nextIndex != -1)
+
+    result.add(substring(currentOffset, length))
+    return result
+}
 
 /**
  * Splits this char sequence around matches of the given regular expression.
@@ -1185,7 +1226,25 @@ public inline fun CharSequence.split(regex: Regex, limit: Int = 0): List<String>
 /**
  * Splits this char sequence to a sequence of lines delimited by any of the following character sequences: CRLF, LF or CR.
  */
-public fun CharSequence.lineSequence(): Sequence<String> = splitToSequence("\r\n", "\n", "\r")
+public fun CharSequence.lineSequence(): Sequence<String> =
+        DelimitedRangesSequence(this, 0, 0, { startIndex -> nextLineBreak(startIndex) }).map { substring(it) }
+
+/**
+ * Finds the first of CRLF, LF or CR starting from [startIndex], the same way as `findAnyOf(listOf("\r\n", "\n", "\r"))`
+ * but in a single pass, and returns its index and length.
+ */
+private fun CharSequence.nextLineBreak(startIndex: Int): Pair<Int, Int>? {
+    for (index in startIndex..length - 1) {
+        val char = this[index]
+        if (char == '\n') {
+            return index to 1
+        }
+        if (char == '\r') {
+            return index to if (index + 1 < length && this[index + 1] == '\n') 2 else 1
+        }
+    }
+    return null
+}
 
 /**
  * * Splits this char sequence to a list of lines delimited by any of the following character sequences: CRLF, LF or CR.
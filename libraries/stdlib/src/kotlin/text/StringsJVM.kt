@@ -62,8 +62,23 @@ public fun String.replace(oldChar: Char, newChar: Char, ignoreCase: Boolean = fa
  * Returns a new string obtained by replacing all occurrences of the [oldValue] substring in this string
  * with the specified [newValue] string.
  */
-public fun String.replace(oldValue: String, newValue: String, ignoreCase: Boolean = false): String =
-        splitToSequence(oldValue, ignoreCase = ignoreCase).joinToString(separator = newValue)
+public fun String.replace(oldValue: String, newValue: String, ignoreCase: Boolean = false): String {
+    if (oldValue.isEmpty())
+        return splitToSequence(oldValue, ignoreCase = ignoreCase).joinToString(separator = newValue)
+
+    var occurrenceIndex = indexOf(oldValue, 0, ignoreCase)
+    if (occurrenceIndex < 0) return this
+
+    val result = StringBuilder(length)
+    var copiedIndex = 0
+    do {
+        result.append(this, copiedIndex, occurrenceIndex).append(newValue)
+        copiedIndex = occurrenceIndex + oldValue.length
+        occurrenceIndex = indexOf(oldValue, copiedIndex, ignoreCase)
+    } while (occurrenceIndex >= 0)
+
+    return result.append(this, copiedIndex, length).toString()
+}
 
 
 /**
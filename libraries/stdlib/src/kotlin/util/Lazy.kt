@@ -72,6 +72,23 @@ public fun <T> lazy(mode: LazyThreadSafetyMode, initializer: () -> T): Lazy<T> =
 @kotlin.jvm.JvmVersion
 public fun <T> lazy(lock: Any?, initializer: () -> T): Lazy<T> = SynchronizedLazyImpl(initializer, lock)
 
+/**
+ * Creates a new instance of the [Lazy] that initializes its value by calling the specified [initializer]
+ * on the given [receiver] and uses the default thread-safety mode [LazyThreadSafetyMode.SYNCHRONIZED].
+ *
+ * It is a lighter alternative to `lazy { ... }` for properties of classes having many instances:
+ * `val property: String by lazyWith(this) { initializer }`. When the [initializer] accesses the instance
+ * only through its receiver, it captures nothing, so a single function object is shared by all the instances
+ * instead of being allocated for each of them.
+ *
+ * If the initialization of a value throws an exception, it will attempt to reinitialize the value at next access.
+ *
+ * Note that the returned instance uses itself to synchronize on. Do not synchronize from external code on
+ * the returned instance as it may cause accidental deadlock. Also this behavior can be changed in the future.
+ */
+@kotlin.jvm.JvmVersion
+public fun <R, T> lazyWith(receiver: R, initializer: R.() -> T): Lazy<T> = SynchronizedReceiverLazyImpl(receiver, initializer)
+
 /**
  * An extension to delegate a read-only property of type [T] to an instance of [Lazy].
  *
@@ -143,6 +160,44 @@ private class SynchronizedLazyImpl<out T>(initializer: () -> T, lock: Any? = nul
     private fun writeReplace(): Any = InitializedLazyImpl(value)
 }
 
+@kotlin.jvm.JvmVersion
+private class SynchronizedReceiverLazyImpl<R, out T>(receiver: R, initializer: R.() -> T) : Lazy<T>, Serializable {
+    // cleared together with the initializer, so that the receiver is not retained after the value is computed
+    private var receiver: R? = receiver
+    private var initializer: (R.() -> T)? = initializer
+    @Volatile private var _value: Any? = UNINITIALIZED_VALUE
+
+    override val value: T
+        get() {
+            val _v1 = _value
+            if (_v1 !== UNINITIALIZED_VALUE) {
+                @Suppress("UNCHECKED_CAST")
+                return _v1 as T
+            }
+
+            return synchronized(this) {
+                val _v2 = _value
+                if (_v2 !== UNINITIALIZED_VALUE) {
+                    @Suppress("UNCHECKED_CAST") (_v2 as T)
+                }
+                else {
+                    @Suppress("UNCHECKED_CAST")
+                    val typedValue = initializer!!(receiver as R)
+                    _value = typedValue
+                    receiver = null
+                    initializer = null
+                    typedValue
+                }
+            }
+        }
+
+    override fun isInitialized(): Boolean = _value !== UNINITIALIZED_VALUE
+
+    override fun toString(): String = if (isInitialized()) value.toString() else "Lazy value not initialized yet."
+
+    private fun writeReplace(): Any = InitializedLazyImpl(value)
+}
+
 // internal to be called from lazy in JS
 internal class UnsafeLazyImpl<out T>(initializer: () -> T) : Lazy<T>, Serializable {
     private var initializer: (() -> T)? = initializer
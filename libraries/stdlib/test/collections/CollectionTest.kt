@@ -738,6 +738,15 @@ class CollectionTest {
         expect(3.0.toFloat()) { sequenceOf<Float>(1.0.toFloat(), 2.0.toFloat()).sum() }
     }
 
+    @test fun sumOfPrimitiveIterators() {
+        expect(55) { (1..10).sum() }
+        expect(30L) { (2L..10L step 2).sum() }
+        expect(14) { intArrayOf(2, 3, 9).asSequence().sum() }
+        expect(200) { byteArrayOf(100, 100).asIterable().sum() }
+        expect(3.0) { doubleArrayOf(1.0, 2.0).asSequence().sum() }
+        expect(0) { IntRange.EMPTY.sum() }
+    }
+
     @test fun average() {
         expect(0.0) { arrayListOf<Int>().average() }
         expect(3.8) { listOf(1, 2, 5, 8, 3).average() }
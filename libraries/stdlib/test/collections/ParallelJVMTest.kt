@@ -0,0 +1,77 @@
+package test.collections
+
+import org.junit.Test as test
+import java.util.Collections
+import java.util.HashSet
+import java.util.LinkedList
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.collections.parallel.*
+import kotlin.test.*
+
+class ParallelJVMTest {
+    private val data = (1..10000).toList()
+
+    @test fun map() {
+        assertEquals(data.map { it * 2 }, data.parallelMap { it * 2 })
+        assertEquals(listOf("1", "2"), arrayOf(1, 2).parallelMap { it.toString() })
+        assertEquals(emptyList<Int>(), emptyList<Int>().parallelMap { it })
+    }
+
+    @test fun filter() {
+        assertEquals(data.filter { it % 3 == 0 }, data.parallelFilter { it % 3 == 0 })
+        assertEquals(data.filter { it > 5000 }, LinkedList(data).parallelFilter { it > 5000 })
+        assertEquals(listOf("b"), arrayOf("a", "b").parallelFilter { it == "b" })
+    }
+
+    @test fun forEach() {
+        val sum = AtomicInteger()
+        data.parallelForEach { sum.addAndGet(it) }
+        assertEquals(data.sum(), sum.get())
+    }
+
+    @test fun sum() {
+        assertEquals(data.sumBy { it % 7 }, data.parallelSumBy { it % 7 })
+        assertEquals(data.sum(), data.toIntArray().parallelSum())
+        assertEquals(data.sum().toLong() * 3, data.map { it * 3L }.toLongArray().parallelSum())
+        assertEquals(6.0, doubleArrayOf(1.0, 2.0, 3.0).parallelSum())
+        assertEquals(0, intArrayOf().parallelSum())
+    }
+
+    @test fun groupBy() {
+        val selector = { x: Int -> x % 10 }
+        val expected = data.groupBy(selector)
+        val actual = data.parallelGroupBy(selector)
+        assertEquals(expected, actual)
+        assertEquals(expected.keys.toList(), actual.keys.toList())
+    }
+
+    @test fun sortedBy() {
+        val pairs = data.map { it to it * 7919 % 100 }
+        assertEquals(pairs.sortedBy { it.second }, pairs.parallelSortedBy { it.second })
+        assertEquals(listOf("a", "bb", "ccc"), arrayOf("ccc", "a", "bb").parallelSortedBy { it.length })
+        assertEquals(emptyList<String>(), emptyList<String>().parallelSortedBy { it })
+    }
+
+    @test fun smallListIsProcessedInPlace() {
+        val thread = Thread.currentThread()
+        assertEquals(listOf(thread, thread, thread), listOf(1, 2, 3).parallelMap { Thread.currentThread() })
+    }
+
+    @test fun nested() {
+        // enough rows to be split into several chunks, so that some of the inner calls are made from the worker threads
+        val rows = (1..4096).map { row -> (1..100).map { row * it } }
+        val threadNames = Collections.synchronizedSet(HashSet<String>())
+        val sums = rows.parallelMap { row ->
+            threadNames.add(Thread.currentThread().name)
+            row.parallelSumBy { it }
+        }
+        assertEquals(rows.map { it.sum() }, sums)
+        assertTrue(threadNames.any { it.startsWith("kotlin-parallel-") })
+    }
+
+    @test fun exceptionIsRethrown() {
+        assertFailsWith<IllegalStateException> {
+            data.parallelForEach { if (it == 9000) throw IllegalStateException() }
+        }
+    }
+}
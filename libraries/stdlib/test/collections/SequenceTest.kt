@@ -110,6 +110,30 @@ public class SequenceTest {
         assertEquals("13, 21, 34, 55, 89, ...", fibonacci().filter { it > 10 }.joinToString(separator = ", ", limit = 5))
     }
 
+    @test fun chainedFiltersAndMaps() {
+        val data = listOf(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)
+        val expected = data.filter { it % 2 == 0 }.map { it * 3 }.map { it + 1 }.filterNot { it % 7 == 0 }.filter { it > 10 }.map { "$it" }
+        assertEquals(expected, data.asSequence().filter { it % 2 == 0 }.map { it * 3 }.map { it + 1 }.filterNot { it % 7 == 0 }.filter { it > 10 }.map { "$it" }.toList())
+        assertEquals(listOf(4, 16), data.asSequence().map { it * it }.filter { it % 2 == 0 }.filterNot { it > 20 }.toList())
+        assertEquals(listOf("3", "6", "9"), data.asSequence().filter { it % 3 == 0 }.map { "$it" }.filter { it.length == 1 }.toList())
+
+        val evaluated = arrayListOf<String>()
+        val sequence = data.asSequence().filter { evaluated.add("f$it"); it < 3 }.map { evaluated.add("m$it"); it }.filter { evaluated.add("g$it"); true }
+        assertEquals(emptyList<String>(), evaluated)
+        assertEquals(listOf(1, 2), sequence.take(2).toList())
+        assertEquals(listOf("f1", "m1", "g1", "f2", "m2", "g2"), evaluated)
+
+        assertEquals(listOf("4", "16", "64"), data.asSequence().map { it * it }.filter { it % 2 == 0 }.map { "$it" }.filter { it.length < 3 }.filter { it != "36" }.toList())
+        assertEquals(listOf(3, 9), data.asSequence().filter { it % 2 == 1 }.map { it * 3 }.filter { it % 9 == 0 || it == 3 }.filterNot { it > 10 }.toList())
+
+        evaluated.clear()
+        val iterator = data.asSequence().filter { evaluated.add("f$it"); it > 1 }.map { evaluated.add("m$it"); it }.iterator()
+        assertTrue(iterator.hasNext())
+        assertEquals(listOf("f1", "f2"), evaluated)
+        assertEquals(2, iterator.next())
+        assertEquals(listOf("f1", "f2", "m2"), evaluated)
+    }
+
     @test fun drop() {
         assertEquals(emptyList(), emptySequence<Int>().drop(1).toList())
         listOf(2, 3, 4, 5).let { assertEquals(it, it.asSequence().drop(0).toList()) }
@@ -359,6 +383,12 @@ public class SequenceTest {
 
         val seqMappedIterable = sequenceOf(1, 2).map { 0..it }.flatten()
         assertEquals(expected, seqMappedIterable.toList())
+
+        val seqFilteredMappedSeq = sequenceOf(0, 1, 2).filter { it > 0 }.map { (0..it).asSequence() }.flatten()
+        assertEquals(expected, seqFilteredMappedSeq.toList())
+
+        val seqMappedFilteredIterable = sequenceOf(1, 2, 3).map { 0..it }.filter { it.last < 3 }.flatten()
+        assertEquals(expected, seqMappedFilteredIterable.toList())
     }
 
     @test fun distinct() {
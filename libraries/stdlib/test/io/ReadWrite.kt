@@ -6,6 +6,7 @@ import kotlin.test.assertEquals
 import java.io.Reader
 import java.io.StringReader
 import java.net.URL
+import java.nio.charset.Charset
 import java.util.ArrayList
 import kotlin.test.assertFalse
 import kotlin.test.assertTrue
@@ -124,6 +125,30 @@ class ReadWriteTest {
 
 
 
+    @test fun mappedFile() {
+        // every part uses its own file: a mapped file can't be truncated or deleted on Windows until the mapping is collected
+        fun tempFile(text: String, charset: Charset = Charsets.UTF_8) = File.createTempFile("temp", System.nanoTime().toString()).apply {
+            writeText(text, charset)
+            deleteOnExit()
+        }
+
+        val file = tempFile("Hello\r\nWorld\n\nÄgain\r\r")
+
+        val bytes = file.mapBytes()
+        assertEquals(file.length().toInt(), bytes.remaining())
+        assertEquals('H'.toByte(), bytes.get(0))
+        assertEquals('W'.toByte(), file.mapBytes(7, 5).get(0))
+
+        assertEquals(file.readLines(), file.mappedLineSequence().toList())
+        assertEquals(listOf("Hello", "World", "", "Ägain", ""), file.mappedLineSequence().toList())
+
+        assertEquals(emptyList(), tempFile("").mappedLineSequence().toList())
+
+        val longLine = "x".repeat(DEFAULT_BUFFER_SIZE * 3 + 1)
+        val longFile = tempFile("$longLine\n${longLine}ü", Charsets.UTF_16)
+        assertEquals(listOf(longLine, longLine + "ü"), longFile.mappedLineSequence(Charsets.UTF_16).toList())
+    }
+
     @test fun testUse() {
         val list = ArrayList<String>()
         val reader = sample().buffered()
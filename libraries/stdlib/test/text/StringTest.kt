@@ -535,6 +535,12 @@ class StringTest {
         assertEquals(listOf("", "a", "b", "c", ""), (+"abc").split(""))
         assertEquals(listOf("", "a", "b", "b", "a", ""), (+"abba").split("", "a"))
         assertEquals(listOf("", "", "b", "b", "", ""), (+"abba").split("a", ""))
+
+        assertEquals(listOf("a", "b", "", "c", ""), (+"a;b;;c;").split(";"))
+        assertEquals(listOf("a", "b;;c;"), (+"a;b;;c;").split(';', limit = 2))
+        assertEquals(listOf("a;b;;c;"), (+"a;b;;c;").split(";", limit = 1))
+        assertEquals(listOf("a", "b", "c"), (+"aXbxc").split('x', ignoreCase = true))
+        assertFails { (+"a;b").split(";", limit = -1) }
     }
 
     @test fun splitToLines() = withOneCharSequenceArg { arg1 ->
@@ -544,6 +550,9 @@ class StringTest {
 
         val singleLine = arg1("single line")
         assertEquals(listOf(singleLine.toString()), singleLine.lines())
+
+        assertEquals(listOf("", "a", "", "b", ""), arg1("\na\r\rb\r\n").lines())
+        assertEquals(listOf(""), arg1("").lines())
     }
 
 
@@ -709,6 +718,8 @@ class StringTest {
         assertEquals("/b/", input.replace("ab", "/", ignoreCase = true))
 
         assertEquals("-a-b-b-A-b-", input.replace("", "-"))
+        assertEquals("ba", "aaa".replace("aa", "b"))
+        assertEquals(input, input.replace("c", "d"))
     }
 
     @test fun replaceFirst() {
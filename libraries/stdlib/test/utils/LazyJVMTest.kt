@@ -25,6 +25,23 @@ class LazyJVMTest {
         assertEquals(1, counter.get())
     }
 
+    @test fun synchronizedReceiverLazy() {
+        class Holder(val counter: AtomicInteger) {
+            val value by lazyWith(this) {
+                Thread.sleep(100)
+                counter.incrementAndGet()
+            }
+        }
+
+        val holder = Holder(AtomicInteger(0))
+        val accessThreads = listOf(holder, holder).map { thread { it.value } }
+        accessThreads.forEach { it.join() }
+
+        assertEquals(1, holder.counter.get())
+        assertEquals(1, holder.value)
+        assertEquals(2, Holder(holder.counter).value)
+    }
+
     @test fun externallySynchronizedLazy() {
         val counter = AtomicInteger(0)
         var initialized: Boolean = false
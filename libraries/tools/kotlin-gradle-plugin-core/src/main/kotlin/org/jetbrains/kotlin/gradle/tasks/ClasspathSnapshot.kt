@@ -0,0 +1,402 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.gradle.tasks
+
+import org.jetbrains.kotlin.incremental.ChangeInfo
+import org.jetbrains.kotlin.incremental.difference
+import org.jetbrains.kotlin.incremental.md5
+import org.jetbrains.kotlin.incremental.storage.ProtoMapValue
+import org.jetbrains.kotlin.incremental.storage.ProtoMapValueExternalizer
+import org.jetbrains.kotlin.inline.inlineFunctionsJvmNames
+import org.jetbrains.kotlin.load.java.JvmAbi
+import org.jetbrains.kotlin.load.kotlin.FileBasedKotlinClass
+import org.jetbrains.kotlin.load.kotlin.header.KotlinClassHeader
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.resolve.jvm.JvmClassName
+import org.jetbrains.kotlin.serialization.ProtoBuf
+import org.jetbrains.kotlin.serialization.deserialization.NameResolver
+import org.jetbrains.kotlin.serialization.jvm.BitEncoding
+import org.jetbrains.kotlin.serialization.jvm.JvmProtoBuf
+import org.jetbrains.kotlin.serialization.jvm.JvmProtoBufUtil
+import org.jetbrains.org.objectweb.asm.*
+import java.io.*
+import java.util.*
+import java.util.zip.ZipFile
+
+const val CLASSPATH_SNAPSHOT_FILE_NAME = "classpath-snapshot.bin"
+private const val CLASSPATH_SNAPSHOT_VERSION = 2
+
+/**
+ * ABI of a single class found on the compilation classpath.
+ * Method bodies are not a part of the ABI, except for the bodies of Kotlin inline functions and their `$default` variants.
+ */
+internal class ClassAbiSnapshot(
+        val internalName: String,
+        val classHash: Long,
+        val memberHashes: Map<MemberSignature, Long>,
+        val proto: ProtoMapValue?
+) {
+    val fqName: FqName
+        get() {
+            val className = JvmClassName.byInternalName(internalName)
+            return if (proto?.isPackageFacade ?: false) className.packageFqName else className.fqNameForClassNameWithoutDollars
+        }
+
+    private val kotlinNamesByJvmName: Map<String, String> by lazy { proto?.kotlinNamesByJvmName() ?: emptyMap() }
+
+    /**
+     * Returns the name of the Kotlin declaration of a JVM member: property accessors and fields are mapped to the property,
+     * `$default` variants and functions renamed with `@JvmName` are mapped to the function.
+     */
+    fun kotlinName(member: MemberSignature): String {
+        val jvmName = member.name.removeSuffix(JvmAbi.DEFAULT_PARAMS_IMPL_SUFFIX)
+        return kotlinNamesByJvmName[jvmName] ?: jvmName
+    }
+}
+
+internal data class MemberSignature(val name: String, val desc: String)
+
+internal class ClasspathEntrySnapshot(val path: String, val stamp: Long, val classes: List<ClassAbiSnapshot>)
+
+/**
+ * Persisted ABI of all classpath entries of a compile task.
+ * Comparing two snapshots gives the same kind of [ChangeInfo] that is reported for the changed module's own classes,
+ * so the sources affected by a dependency change can be found via lookups instead of rebuilding the whole module.
+ */
+internal class ClasspathSnapshot(val entries: List<ClasspathEntrySnapshot>) {
+    // the first class with a given name on the classpath wins, same as in the compiler
+    val classes: Map<String, ClassAbiSnapshot> by lazy {
+        val result = HashMap<String, ClassAbiSnapshot>()
+        for (entry in entries) {
+            for (classSnapshot in entry.classes) {
+                if (classSnapshot.internalName !in result) {
+                    result[classSnapshot.internalName] = classSnapshot
+                }
+            }
+        }
+        result
+    }
+
+    fun changesSince(old: ClasspathSnapshot): List<ChangeInfo> {
+        val changes = ArrayList<ChangeInfo>()
+        val oldClasses = old.classes
+        val newClasses = classes
+
+        for (internalName in oldClasses.keys + newClasses.keys) {
+            val oldClass = oldClasses[internalName]
+            val newClass = newClasses[internalName]
+
+            when {
+                oldClass == null -> changes.add(newClass!!.addedOrRemoved())
+                newClass == null -> changes.add(oldClass.addedOrRemoved())
+                else -> changes.addAll(newClass.changesSince(oldClass))
+            }
+        }
+
+        return changes
+    }
+
+    fun write(file: File) {
+        file.parentFile.mkdirs()
+        DataOutputStream(BufferedOutputStream(FileOutputStream(file))).use { output ->
+            output.writeInt(CLASSPATH_SNAPSHOT_VERSION)
+            output.writeInt(entries.size)
+
+            for (entry in entries) {
+                output.writeUTF(entry.path)
+                output.writeLong(entry.stamp)
+                output.writeInt(entry.classes.size)
+                entry.classes.forEach { output.writeClass(it) }
+            }
+        }
+    }
+
+    companion object {
+        fun read(file: File): ClasspathSnapshot? {
+            if (!file.exists()) return null
+
+            return try {
+                DataInputStream(BufferedInputStream(FileInputStream(file))).use { input ->
+                    if (input.readInt() != CLASSPATH_SNAPSHOT_VERSION) return null
+
+                    val entries = (1..input.readInt()).map {
+                        val path = input.readUTF()
+                        val stamp = input.readLong()
+                        val classes = (1..input.readInt()).map { input.readClass() }
+                        ClasspathEntrySnapshot(path, stamp, classes)
+                    }
+                    ClasspathSnapshot(entries)
+                }
+            }
+            catch (e: IOException) {
+                null
+            }
+        }
+
+        /**
+         * Snapshots of the entries that were not changed since [previous] are reused as is,
+         * so only the changed jars and directories are read.
+         */
+        fun create(classpath: Iterable<File>, previous: ClasspathSnapshot?): ClasspathSnapshot {
+            val previousEntries = previous?.entries?.associateBy { it.path } ?: emptyMap()
+
+            val entries = classpath.filter { it.exists() }.map { file ->
+                val path = file.canonicalPath
+                val stamp = file.stamp()
+                val previousEntry = previousEntries[path]
+
+                if (previousEntry != null && previousEntry.stamp == stamp)
+                    previousEntry
+                else
+                    ClasspathEntrySnapshot(path, stamp, file.readClasses().mapNotNull { snapshotClass(it) }.toList())
+            }
+
+            return ClasspathSnapshot(entries)
+        }
+    }
+}
+
+private fun ClassAbiSnapshot.addedOrRemoved(): ChangeInfo =
+        if (proto != null && proto.isPackageFacade)
+            ChangeInfo.MembersChanged(fqName, memberHashes.keys.map { kotlinName(it) }.toSet() + proto.packageMemberNames())
+        else
+            ChangeInfo.SignatureChanged(fqName, areSubclassesAffected = true)
+
+private fun ClassAbiSnapshot.changesSince(old: ClassAbiSnapshot): List<ChangeInfo> {
+    val oldProto = old.proto
+    val newProto = proto
+
+    if (old.classHash != classHash || (oldProto == null) != (newProto == null)) {
+        return listOf(ChangeInfo.SignatureChanged(fqName, areSubclassesAffected = true))
+    }
+
+    val changes = ArrayList<ChangeInfo>()
+    val changedMembers = HashSet<String>()
+
+    if (oldProto != null && newProto != null &&
+        (!Arrays.equals(oldProto.bytes, newProto.bytes) || !Arrays.equals(oldProto.strings, newProto.strings))) {
+        val difference = difference(oldProto, newProto)
+
+        if (difference.isClassAffected) {
+            changes.add(ChangeInfo.SignatureChanged(fqName, difference.areSubclassesAffected))
+        }
+        changedMembers.addAll(difference.changedMembersNames)
+    }
+
+    // constant values and inline function bodies are not a part of the metadata, so JVM members are always compared
+    var isConstructorChanged = false
+    for (member in old.memberHashes.keys + memberHashes.keys) {
+        if (old.memberHashes[member] != memberHashes[member]) {
+            if (member.name == CONSTRUCTOR_NAME) {
+                isConstructorChanged = true
+            }
+            else {
+                changedMembers.add(if (member in memberHashes) kotlinName(member) else old.kotlinName(member))
+            }
+        }
+    }
+
+    // constructor calls are looked up by the class name rather than as members, e.g. for Java classes without metadata
+    if (isConstructorChanged && changes.none { it is ChangeInfo.SignatureChanged && it.areSubclassesAffected }) {
+        changes.add(ChangeInfo.SignatureChanged(fqName, areSubclassesAffected = true))
+    }
+
+    if (changedMembers.isNotEmpty()) {
+        changes.add(ChangeInfo.MembersChanged(fqName, changedMembers))
+    }
+
+    return changes
+}
+
+private const val CONSTRUCTOR_NAME = "<init>"
+
+private fun ProtoMapValue.packageMemberNames(): Collection<String> {
+    val packageData = JvmProtoBufUtil.readPackageDataFrom(bytes, strings)
+    val packageProto = packageData.packageProto
+    val nameIndices = packageProto.functionList.map { it.name } + packageProto.propertyList.map { it.name }
+    return nameIndices.map { packageData.nameResolver.getString(it) }
+}
+
+private fun ProtoMapValue.kotlinNamesByJvmName(): Map<String, String> {
+    val nameResolver: NameResolver
+    val functions: List<ProtoBuf.Function>
+    val properties: List<ProtoBuf.Property>
+    if (isPackageFacade) {
+        val packageData = JvmProtoBufUtil.readPackageDataFrom(bytes, strings)
+        nameResolver = packageData.nameResolver
+        functions = packageData.packageProto.functionList
+        properties = packageData.packageProto.propertyList
+    }
+    else {
+        val classData = JvmProtoBufUtil.readClassDataFrom(bytes, strings)
+        nameResolver = classData.nameResolver
+        functions = classData.classProto.functionList
+        properties = classData.classProto.propertyList
+    }
+
+    val result = HashMap<String, String>()
+    for (function in functions) {
+        val signature = if (function.hasExtension(JvmProtoBuf.methodSignature)) function.getExtension(JvmProtoBuf.methodSignature) else null
+        val jvmName = if (signature != null && signature.hasName()) signature.name else function.name
+        result[nameResolver.getString(jvmName)] = nameResolver.getString(function.name)
+    }
+    for (property in properties) {
+        val name = nameResolver.getString(property.name)
+        val signature = if (property.hasExtension(JvmProtoBuf.propertySignature)) property.getExtension(JvmProtoBuf.propertySignature) else continue
+        if (signature.hasField() && signature.field.hasName()) {
+            result[nameResolver.getString(signature.field.name)] = name
+        }
+        if (signature.hasGetter() && signature.getter.hasName()) {
+            result[nameResolver.getString(signature.getter.name)] = name
+        }
+        if (signature.hasSetter() && signature.setter.hasName()) {
+            result[nameResolver.getString(signature.setter.name)] = name
+        }
+    }
+    return result
+}
+
+private fun File.stamp(): Long =
+        if (isDirectory)
+            walk().filter { it.isFile }.fold(0L) { hash, file -> 31 * hash + file.path.hashCode() * 17 + file.lastModified() + file.length() }
+        else
+            31 * lastModified() + length()
+
+private fun File.readClasses(): Sequence<ByteArray> {
+    if (isDirectory) {
+        return listClassFiles(path).map { it.readBytes() }
+    }
+
+    if (!name.endsWith(".jar", ignoreCase = true) && !name.endsWith(".zip", ignoreCase = true)) return emptySequence()
+
+    val result = ArrayList<ByteArray>()
+    ZipFile(this).use { zip ->
+        for (entry in zip.entries()) {
+            if (!entry.isDirectory && entry.name.endsWith(".class")) {
+                result.add(zip.getInputStream(entry).use { it.readBytes() })
+            }
+        }
+    }
+    return result.asSequence()
+}
+
+private fun snapshotClass(bytes: ByteArray): ClassAbiSnapshot? {
+    val reader = ClassReader(bytes)
+    if (reader.access and (Opcodes.ACC_PRIVATE or Opcodes.ACC_SYNTHETIC) != 0) return null
+
+    var header: KotlinClassHeader? = null
+    FileBasedKotlinClass.create(bytes) { className, classHeader, innerClasses ->
+        header = classHeader
+        null
+    }
+
+    val proto = header?.let {
+        val data = it.data
+        val strings = it.strings
+        when {
+            data == null || strings == null -> null
+            it.kind == KotlinClassHeader.Kind.CLASS -> ProtoMapValue(false, BitEncoding.decodeBytes(data), strings)
+            it.kind == KotlinClassHeader.Kind.FILE_FACADE ||
+            it.kind == KotlinClassHeader.Kind.MULTIFILE_CLASS_PART -> ProtoMapValue(true, BitEncoding.decodeBytes(data), strings)
+            else -> null
+        }
+    }
+    val inlineFunctions = if (proto != null) inlineFunctionsJvmNames(bytes) else emptySet<String>()
+    // the body of an inline function with default arguments is inlined from its synthetic `$default` variant
+    val inlineDefaultFunctionNames = inlineFunctions.map { it.substringBefore("(") + JvmAbi.DEFAULT_PARAMS_IMPL_SUFFIX }.toSet()
+
+    var classHash = 0L
+    val memberHashes = HashMap<MemberSignature, Long>()
+
+    reader.accept(object : ClassVisitor(Opcodes.ASM5) {
+        override fun visit(version: Int, access: Int, name: String, signature: String?, superName: String?, interfaces: Array<out String>?) {
+            classHash = hash(access, signature, superName, *(interfaces ?: emptyArray()))
+        }
+
+        override fun visitField(access: Int, name: String, desc: String, signature: String?, value: Any?): FieldVisitor? {
+            if (access.isAbi()) {
+                memberHashes[MemberSignature(name, desc)] = hash(access, signature, value?.toString())
+            }
+            return null
+        }
+
+        override fun visitMethod(access: Int, name: String, desc: String, signature: String?, exceptions: Array<out String>?): MethodVisitor? {
+            val isInlineDefault = name in inlineDefaultFunctionNames && access and Opcodes.ACC_PRIVATE == 0
+            if (!access.isAbi() && !isInlineDefault) return null
+
+            val signatureHash = hash(access, signature, *(exceptions ?: emptyArray()))
+            if (name + desc !in inlineFunctions && !isInlineDefault) {
+                memberHashes[MemberSignature(name, desc)] = signatureHash
+                return null
+            }
+
+            val bodyWriter = ClassWriter(Opcodes.ASM5)
+            return object : MethodVisitor(Opcodes.ASM5, bodyWriter.visitMethod(0, name, desc, null, exceptions)) {
+                override fun visitEnd() {
+                    memberHashes[MemberSignature(name, desc)] = 31 * signatureHash + bodyWriter.toByteArray().md5()
+                }
+            }
+        }
+    }, ClassReader.SKIP_DEBUG or ClassReader.SKIP_FRAMES)
+
+    return ClassAbiSnapshot(reader.className, classHash, memberHashes, proto)
+}
+
+private fun Int.isAbi(): Boolean = this and (Opcodes.ACC_PRIVATE or Opcodes.ACC_SYNTHETIC) == 0
+
+private fun hash(access: Int, vararg values: String?): Long {
+    val bytes = ByteArrayOutputStream()
+    DataOutputStream(bytes).use { output ->
+        output.writeInt(access)
+        for (value in values) {
+            output.writeUTF(value ?: "")
+        }
+    }
+    return bytes.toByteArray().md5()
+}
+
+private fun DataOutput.writeClass(classSnapshot: ClassAbiSnapshot) {
+    writeUTF(classSnapshot.internalName)
+    writeLong(classSnapshot.classHash)
+
+    writeInt(classSnapshot.memberHashes.size)
+    for ((member, hash) in classSnapshot.memberHashes) {
+        writeUTF(member.name)
+        writeUTF(member.desc)
+        writeLong(hash)
+    }
+
+    val proto = classSnapshot.proto
+    writeBoolean(proto != null)
+    if (proto != null) {
+        ProtoMapValueExternalizer.save(this, proto)
+    }
+}
+
+private fun DataInput.readClass(): ClassAbiSnapshot {
+    val internalName = readUTF()
+    val classHash = readLong()
+
+    val memberHashes = HashMap<MemberSignature, Long>()
+    repeat(readInt()) {
+        memberHashes[MemberSignature(readUTF(), readUTF())] = readLong()
+    }
+
+    val proto = if (readBoolean()) ProtoMapValueExternalizer.read(this) else null
+
+    return ClassAbiSnapshot(internalName, classHash, memberHashes, proto)
+}
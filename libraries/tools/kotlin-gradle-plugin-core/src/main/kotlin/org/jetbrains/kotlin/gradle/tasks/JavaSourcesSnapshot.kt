@@ -0,0 +1,308 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.gradle.tasks
+
+import com.intellij.psi.PsiAnnotationMethod
+import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiEnumConstant
+import com.intellij.psi.PsiModifier
+import org.jetbrains.kotlin.incremental.ChangeInfo
+import org.jetbrains.kotlin.incremental.md5
+import org.jetbrains.kotlin.name.FqName
+import java.io.*
+import java.util.*
+
+const val JAVA_SOURCES_SNAPSHOT_FILE_NAME = "java-sources-snapshot.bin"
+private const val JAVA_SOURCES_SNAPSHOT_VERSION = 3
+
+internal class JavaClassSnapshot(val classHash: Long, val memberHashes: Map<String, Long>)
+
+/**
+ * @param signatureHash hash of [javaSignatureText] of the file
+ * @param classes declarations of the file by class fq-name, or null if the file was never parsed
+ */
+internal class JavaFileSnapshot(val signatureHash: Long, val classes: Map<String, JavaClassSnapshot>?)
+
+/**
+ * Signatures of the Java sources of a compile task as of the last successful compilation.
+ * Used to find out which declarations of a modified Java file have actually changed,
+ * so that edits of method bodies don't cause recompilation of Kotlin files.
+ */
+internal class JavaSourcesSnapshot(private val files: MutableMap<String, JavaFileSnapshot>) {
+    operator fun get(file: File): JavaFileSnapshot? = files[file.canonicalPath]
+
+    operator fun set(file: File, snapshot: JavaFileSnapshot) {
+        files[file.canonicalPath] = snapshot
+    }
+
+    /**
+     * Removes the snapshots of the files which are not among the [existingFiles] anymore.
+     */
+    fun retainOnly(existingFiles: Iterable<File>) {
+        files.keys.retainAll(existingFiles.mapTo(HashSet<String>()) { it.canonicalPath })
+    }
+
+    fun write(file: File) {
+        file.parentFile.mkdirs()
+        DataOutputStream(BufferedOutputStream(FileOutputStream(file))).use { output ->
+            output.writeInt(JAVA_SOURCES_SNAPSHOT_VERSION)
+            output.writeInt(files.size)
+
+            for ((path, snapshot) in files) {
+                output.writeUTF(path)
+                output.writeLong(snapshot.signatureHash)
+
+                val classes = snapshot.classes
+                output.writeBoolean(classes != null)
+                if (classes == null) continue
+
+                output.writeInt(classes.size)
+                for ((fqName, classSnapshot) in classes) {
+                    output.writeUTF(fqName)
+                    output.writeLong(classSnapshot.classHash)
+                    output.writeInt(classSnapshot.memberHashes.size)
+                    for ((name, hash) in classSnapshot.memberHashes) {
+                        output.writeUTF(name)
+                        output.writeLong(hash)
+                    }
+                }
+            }
+        }
+    }
+
+    companion object {
+        fun read(file: File): JavaSourcesSnapshot {
+            if (!file.exists()) return JavaSourcesSnapshot(HashMap())
+
+            return try {
+                DataInputStream(BufferedInputStream(FileInputStream(file))).use { input ->
+                    if (input.readInt() != JAVA_SOURCES_SNAPSHOT_VERSION) return JavaSourcesSnapshot(HashMap())
+
+                    val files = HashMap<String, JavaFileSnapshot>()
+                    repeat(input.readInt()) {
+                        val path = input.readUTF()
+                        val signatureHash = input.readLong()
+                        val classes = if (input.readBoolean()) {
+                            val result = HashMap<String, JavaClassSnapshot>()
+                            repeat(input.readInt()) {
+                                val fqName = input.readUTF()
+                                val classHash = input.readLong()
+                                val memberHashes = HashMap<String, Long>()
+                                repeat(input.readInt()) {
+                                    memberHashes[input.readUTF()] = input.readLong()
+                                }
+                                result[fqName] = JavaClassSnapshot(classHash, memberHashes)
+                            }
+                            result
+                        }
+                        else null
+
+                        files[path] = JavaFileSnapshot(signatureHash, classes)
+                    }
+                    JavaSourcesSnapshot(files)
+                }
+            }
+            catch (e: IOException) {
+                JavaSourcesSnapshot(HashMap())
+            }
+        }
+    }
+}
+
+/**
+ * All declarations are considered changed when there is nothing to compare with.
+ */
+internal fun changesBetween(oldClasses: Map<String, JavaClassSnapshot>?, newClasses: Map<String, JavaClassSnapshot>): List<ChangeInfo> {
+    val changes = ArrayList<ChangeInfo>()
+
+    for (fqName in (oldClasses?.keys ?: emptySet<String>()) + newClasses.keys) {
+        val oldClass = oldClasses?.get(fqName)
+        val newClass = newClasses[fqName]
+
+        if (oldClass == null || newClass == null || oldClass.classHash != newClass.classHash) {
+            changes.add(ChangeInfo.SignatureChanged(FqName(fqName), areSubclassesAffected = true))
+        }
+
+        val changedMembers = ((oldClass?.memberHashes?.keys ?: emptySet<String>()) + (newClass?.memberHashes?.keys ?: emptySet<String>()))
+                .filter { oldClass == null || newClass == null || oldClass.memberHashes[it] != newClass.memberHashes[it] }
+        if (changedMembers.isNotEmpty()) {
+            changes.add(ChangeInfo.MembersChanged(FqName(fqName), changedMembers))
+        }
+    }
+
+    return changes
+}
+
+internal fun javaSignatureHash(source: String): Long = javaSignatureText(source).toByteArray().md5()
+
+/**
+ * Returns the text of a Java source without comments, formatting and the contents of code blocks
+ * (method bodies, initializers, anonymous classes), i.e. only the part which can affect dependent Kotlin sources.
+ * Braces of array initializers in annotations, annotation defaults and field initializers are kept.
+ * It is not a parser: it is only used to skip parsing when the result is the same as before.
+ */
+internal fun javaSignatureText(source: String): String {
+    val result = StringBuilder()
+    // depth of the code block being skipped, 0 when not inside a code block
+    var skippedDepth = 0
+    // class, interface or enum keyword was seen since the last declaration boundary, so the next brace opens a type body
+    var isTypeHeader = false
+    // depth of the array initializer braces which are kept in the result, 0 when not inside an array initializer
+    var arrayInitializerDepth = 0
+    var i = 0
+
+    while (i < source.length) {
+        val c = source[i]
+        when {
+            c.isWhitespace() -> i++
+            source.startsWith("//", i) -> i = source.indexOf('\n', i).let { if (it < 0) source.length else it }
+            source.startsWith("/*", i) -> i = source.indexOf("*/", i + 2).let { if (it < 0) source.length else it + 2 }
+            c == '"' || c == '\'' -> {
+                val end = literalEnd(source, i)
+                if (skippedDepth == 0) {
+                    result.append(source, i, end).append(' ')
+                }
+                i = end
+            }
+            Character.isJavaIdentifierStart(c) -> {
+                var end = i + 1
+                while (end < source.length && Character.isJavaIdentifierPart(source[end])) end++
+
+                if (skippedDepth == 0) {
+                    val word = source.substring(i, end)
+                    // Foo.class is not a declaration
+                    if (word in TYPE_KEYWORDS && result.lastOrNull() != '.') {
+                        isTypeHeader = true
+                    }
+                    result.append(word).append(' ')
+                }
+                i = end
+            }
+            c == '{' -> {
+                when {
+                    skippedDepth > 0 -> skippedDepth++
+                    isTypeHeader -> {
+                        result.append('{')
+                        isTypeHeader = false
+                    }
+                    arrayInitializerDepth > 0 || result.startsArrayInitializer() -> {
+                        result.append('{')
+                        arrayInitializerDepth++
+                    }
+                    else -> {
+                        result.append("{}")
+                        skippedDepth = 1
+                    }
+                }
+                i++
+            }
+            c == '}' -> {
+                if (skippedDepth > 0) {
+                    skippedDepth--
+                }
+                else {
+                    result.append('}')
+                    if (arrayInitializerDepth > 0) {
+                        arrayInitializerDepth--
+                    }
+                }
+                i++
+            }
+            else -> {
+                if (skippedDepth == 0) {
+                    result.append(c)
+                    if (c == ';') {
+                        isTypeHeader = false
+                    }
+                }
+                i++
+            }
+        }
+    }
+
+    return result.toString()
+}
+
+private val TYPE_KEYWORDS = setOf("class", "interface", "enum")
+
+/**
+ * A brace opens an array initializer rather than a code block when it follows `=` (field initializers and annotation arguments),
+ * `(` or `,` (annotation arguments) or the `default` keyword (annotation method defaults).
+ */
+private fun StringBuilder.startsArrayInitializer(): Boolean {
+    val last = lastOrNull()
+    return last == '=' || last == '(' || last == ',' || endsWith("default ")
+}
+
+private fun literalEnd(source: String, start: Int): Int {
+    val quote = source[start]
+    var i = start + 1
+    while (i < source.length) {
+        when (source[i]) {
+            '\\' -> i += 2
+            quote, '\n' -> return i + 1
+            else -> i++
+        }
+    }
+    return source.length
+}
+
+/**
+ * Collects snapshots of the class and its nested classes.
+ * Overloads of a method share a lookup symbol, so they are hashed together.
+ * Constructor calls are looked up by the class name in its package rather than as members,
+ * so the constructors are a part of the class signature.
+ */
+internal fun PsiClass.collectSnapshots(result: MutableMap<String, JavaClassSnapshot>) {
+    val fqName = qualifiedName ?: return
+    val memberHashes = HashMap<String, Long>()
+
+    for (method in methods) {
+        if (method.isConstructor) continue
+
+        val methodHash = hashOf(method.modifierList.normalizedText(), method.typeParameterList.normalizedText(),
+                                method.returnTypeElement.normalizedText(), method.parameterList.normalizedText(),
+                                method.throwsList.normalizedText(), (method as? PsiAnnotationMethod)?.defaultValue.normalizedText())
+        memberHashes[method.name] = 31 * (memberHashes[method.name] ?: 0L) + methodHash
+    }
+
+    for (field in fields) {
+        // the initializer of a final field can be a constant which is inlined into the usages
+        val initializer = if (field.hasModifierProperty(PsiModifier.FINAL)) field.initializer.normalizedText() else ""
+        memberHashes[field.name.orEmpty()] = hashOf(field.modifierList.normalizedText(), field.typeElement.normalizedText(), initializer)
+    }
+
+    // a new enum entry breaks exhaustive whens, so entries are a part of the class signature
+    val enumEntries = fields.filterIsInstance<PsiEnumConstant>().joinToString { it.name.orEmpty() }
+    val constructors = constructors.filter { !it.hasModifierProperty(PsiModifier.PRIVATE) }.joinToString("\u0000") {
+        hashOf(it.modifierList.normalizedText(), it.typeParameterList.normalizedText(),
+               it.parameterList.normalizedText(), it.throwsList.normalizedText()).toString()
+    }
+    val classHash = hashOf(isInterface.toString(), isEnum.toString(), isAnnotationType.toString(),
+                           modifierList.normalizedText(), typeParameterList.normalizedText(),
+                           extendsList.normalizedText(), implementsList.normalizedText(), enumEntries, constructors)
+
+    result[fqName] = JavaClassSnapshot(classHash, memberHashes)
+    innerClasses.forEach { it.collectSnapshots(result) }
+}
+
+private fun PsiElement?.normalizedText(): String = this?.text?.replace(WHITESPACE, " ").orEmpty()
+
+private val WHITESPACE = Regex("\\s+")
+
+private fun hashOf(vararg values: String): Long = values.joinToString("\u0000").toByteArray().md5()
@@ -4,7 +4,6 @@ import com.intellij.ide.highlighter.JavaFileType
 import com.intellij.lang.Language
 import com.intellij.openapi.util.Disposer
 import com.intellij.openapi.util.io.FileUtil
-import com.intellij.psi.PsiClass
 import com.intellij.psi.PsiFileFactory
 import com.intellij.psi.PsiJavaFile
 import com.intellij.psi.impl.PsiFileFactoryImpl
@@ -250,6 +249,11 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
         var currentRemoved = removed.filter { it.isKotlinFile() }
         val allGeneratedFiles = hashSetOf<GeneratedFile<TargetId>>()
         val logAction = { logStr: String -> logger.kotlinInfo(logStr) }
+        val classpathFiles = args.classpath.split(File.pathSeparator).filter { it.isNotEmpty() }.map { File(it) }
+        val classpathSnapshotFile = File(cacheDirectory, CLASSPATH_SNAPSHOT_FILE_NAME)
+        var classpathSnapshot: ClasspathSnapshot? = null
+        val javaSourcesSnapshotFile = File(cacheDirectory, JAVA_SOURCES_SNAPSHOT_FILE_NAME)
+        val javaSourcesSnapshot = JavaSourcesSnapshot.read(javaSourcesSnapshotFile)
 
         fun getOrCreateIncrementalCache(target: TargetId): GradleIncrementalCacheImpl {
             val cacheDir = File(cacheDirectory, "increCache.${target.name}")
@@ -259,71 +263,100 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
 
         fun getIncrementalCache(it: TargetId) = caches.getOrPut(it, { getOrCreateIncrementalCache(it) })
 
-        fun PsiClass.findLookupSymbols(): Iterable<LookupSymbol> {
-            val fqn = qualifiedName.orEmpty()
-            return listOf(LookupSymbol(name.orEmpty(), if (fqn == name) "" else fqn.removeSuffix("." + name!!))) +
-                    methods.map { LookupSymbol(it.name, fqn) } +
-                    fields.map { LookupSymbol(it.name.orEmpty(), fqn) } +
-                    innerClasses.flatMap { it.findLookupSymbols() }
-        }
+        fun changesFromModifiedJavaFiles(): List<ChangeInfo> {
+            val javaFilesToParse = arrayListOf<Triple<File, String, Long>>()
+
+            for (file in modified.filter { it.isJavaFile() }) {
+                val text = file.readText()
+                val signatureHash = javaSignatureHash(text)
+                val previousSnapshot = javaSourcesSnapshot[file]
+                if (previousSnapshot != null && previousSnapshot.signatureHash == signatureHash) {
+                    logger.kotlinDebug { "Signatures of ${projectRelativePath(file)} are not changed" }
+                    continue
+                }
+
+                javaFilesToParse.add(Triple(file, text, signatureHash))
+            }
 
-        fun dirtyLookupSymbolsFromModifiedJavaFiles(): List<LookupSymbol> {
-            val modifiedJavaFiles = modified.filter { it.isJavaFile() }
-            return (if (modifiedJavaFiles.any()) {
-                val rootDisposable = Disposer.newDisposable()
+            if (javaFilesToParse.isEmpty()) return listOf()
+
+            val rootDisposable = Disposer.newDisposable()
+            try {
                 val configuration = CompilerConfiguration()
                 val environment = KotlinCoreEnvironment.createForProduction(rootDisposable, configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES)
                 val project = environment.project
                 val psiFileFactory = PsiFileFactory.getInstance(project) as PsiFileFactoryImpl
-                modifiedJavaFiles.flatMap {
-                    val javaFile = psiFileFactory.createFileFromText(it.nameWithoutExtension, Language.findLanguageByID("JAVA")!!, it.readText())
-                    if (javaFile is PsiJavaFile)
-                        javaFile.classes.flatMap { it.findLookupSymbols() }
-                    else listOf()
+
+                return javaFilesToParse.flatMap {
+                    val (file, text, signatureHash) = it
+                    val javaFile = psiFileFactory.createFileFromText(file.nameWithoutExtension, Language.findLanguageByID("JAVA")!!, text)
+                    val classes = hashMapOf<String, JavaClassSnapshot>()
+                    if (javaFile is PsiJavaFile) {
+                        javaFile.classes.forEach { it.collectSnapshots(classes) }
+                    }
+
+                    val previousClasses = javaSourcesSnapshot[file]?.classes
+                    javaSourcesSnapshot[file] = JavaFileSnapshot(signatureHash, classes)
+                    changesBetween(previousClasses, classes)
                 }
-            } else listOf())
+            }
+            finally {
+                Disposer.dispose(rootDisposable)
+            }
         }
 
-        fun dirtyKotlinSourcesFromGradle(): MutableSet<File> {
-            // TODO: handle classpath changes similarly - compare with cashed version (likely a big change, may be costly, some heuristics could be considered)
-            val modifiedKotlinFiles = modified.filter { it.isKotlinFile() }.toMutableSet()
-            val lookupSymbols = dirtyLookupSymbolsFromModifiedJavaFiles()
-                    // TODO: add dirty lookups from modified kotlin files to reduce number of steps needed
+        fun dirtyKotlinSourcesFromChanges(changes: List<ChangeInfo>, excludes: Set<File> = emptySet()): Set<File> {
+            if (changes.isEmpty()) return emptySet()
 
-            if (lookupSymbols.any()) {
-                val kotlinModifiedFilesSet = modifiedKotlinFiles.toHashSet()
-                val dirtyFilesFromLookups = mapLookupSymbolsToFiles(lookupStorage, lookupSymbols, logAction, ::projectRelativePath, excludes = kotlinModifiedFilesSet)
-                modifiedKotlinFiles.addAll(dirtyFilesFromLookups)
-            }
+            val incrementalCaches = targets.map { getIncrementalCache(it) }
+            val (dirtyLookupSymbols, dirtyClassFqNames) = CompilationResult(changes = changes.asSequence()).getDirtyData(incrementalCaches, logAction)
+            return mapLookupSymbolsToFiles(lookupStorage, dirtyLookupSymbols, logAction, ::projectRelativePath, excludes) +
+                   mapClassesFqNamesToFiles(incrementalCaches, dirtyClassFqNames, logAction, ::projectRelativePath, excludes)
+        }
 
+        fun dirtyKotlinSourcesFromGradle(): MutableSet<File> {
+            val modifiedKotlinFiles = modified.filter { it.isKotlinFile() }.toMutableSet()
+            // TODO: add dirty lookups from modified kotlin files to reduce number of steps needed
+            modifiedKotlinFiles.addAll(dirtyKotlinSourcesFromChanges(changesFromModifiedJavaFiles(), excludes = modifiedKotlinFiles.toHashSet()))
             return modifiedKotlinFiles
         }
 
         fun isClassPathChanged(): Boolean {
             // TODO: that doesn't look to wise - join it first and then split here, consider storing it somewhere in between
-            val classpath = args.classpath.split(File.pathSeparator).map { File(it) }.toHashSet()
-            val changedClasspath = modified.filter { classpath.contains(it) }
-            return changedClasspath.any()
+            val classpath = classpathFiles.toHashSet()
+            // class files are reported one by one when a classpath directory changes
+            return modified.any { classpath.contains(it) || it.hasClassFileExtension() } ||
+                   removed.any { it.hasClassFileExtension() }
         }
 
         fun calculateSourcesToCompile(): Pair<Set<File>, Boolean> {
+            val previousClasspathSnapshot = ClasspathSnapshot.read(classpathSnapshotFile)
+            val isClassPathChanged = isClassPathChanged()
+            classpathSnapshot = ClasspathSnapshot.create(classpathFiles, previousClasspathSnapshot)
+
             if (!incremental
                 || !isIncrementalRequested
-                // TODO: more precise will be not to rebuild unconditionally on classpath changes, but retrieve lookup info and try to find out which sources are affected by cp changes
-                || isClassPathChanged()
+                // without a snapshot of the previous classpath there is no way to find out which sources are affected by cp changes
+                || (isClassPathChanged && previousClasspathSnapshot == null)
                 // so far considering it not incremental TODO: store java files in the cache and extract removed symbols from it here
-                || removed.any { it.isJavaFile() || it.hasClassFileExtension() }
-                || modified.any { it.hasClassFileExtension() }
+                || removed.any { it.isJavaFile() }
                 || cacheVersions.any { it.checkVersion() != CacheVersion.Action.DO_NOTHING }
             ) {
                 logger.kotlinInfo(if (!isIncrementalRequested) "clean caches on rebuild" else "classpath changed, rebuilding all kotlin files")
                 targets.forEach { getIncrementalCache(it).clean() }
                 lookupStorage.clean()
                 dirtySourcesSinceLastTimeFile.delete()
+                // declarations are parsed only when a file is changed, here only the signatures are remembered
+                getSource().filter { it.isJavaFile() }.forEach {
+                    javaSourcesSnapshot[it] = JavaFileSnapshot(javaSignatureHash(it.readText()), classes = null)
+                }
                 return Pair(sources.toSet(), false)
             }
 
             val dirtyFiles = dirtyKotlinSourcesFromGradle()
+            if (isClassPathChanged) {
+                dirtyFiles.addAll(dirtyKotlinSourcesFromChanges(classpathSnapshot!!.changesSince(previousClasspathSnapshot!!)))
+            }
             if (dirtySourcesSinceLastTimeFile.exists()) {
                 val files = dirtySourcesSinceLastTimeFile.readLines().map(::File).filter { it.exists() }
                 if (files.isNotEmpty()) {
@@ -431,6 +464,9 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
         lookupStorage.flush(false)
         lookupStorage.close()
         caches.values.forEach { it.flush(false); it.close() }
+        classpathSnapshot?.write(classpathSnapshotFile)
+        javaSourcesSnapshot.retainOnly(getSource().filter { it.isJavaFile() })
+        javaSourcesSnapshot.write(javaSourcesSnapshotFile)
         if (allGeneratedFiles.isNotEmpty()) {
             anyClassesCompiled = true
         }
@@ -3,6 +3,7 @@ package org.jetbrains.kotlin.gradle.tasks.kapt
 import org.jetbrains.org.objectweb.asm.*
 import org.jetbrains.org.objectweb.asm.Opcodes.*
 import java.io.File
+import java.security.MessageDigest
 
 /*
     This file should be a part of AnnotationProcessingManager in kotlin-gradle-plugin,
@@ -64,4 +65,23 @@ public fun generateAnnotationProcessorWrapper(
     outputFile.writeBytes(bytes)
 
     return outputFile
-}
\ No newline at end of file
+}
+
+/**
+ * Returns a hash of the class file stubs in [stubsDirectory] which does not depend on method bodies and debug information,
+ * so it only changes when declarations visible to annotation processors change.
+ */
+public fun kaptStubsAbiHash(stubsDirectory: File): String {
+    val digest = MessageDigest.getInstance("MD5")
+    val stubs = stubsDirectory.walk().filter { it.isFile && it.extension == "class" }.sortedBy { it.path }
+
+    for (stub in stubs) {
+        digest.update(stub.toRelativeString(stubsDirectory).toByteArray())
+
+        val writer = ClassWriter(0)
+        ClassReader(stub.readBytes()).accept(writer, ClassReader.SKIP_CODE or ClassReader.SKIP_DEBUG or ClassReader.SKIP_FRAMES)
+        digest.update(writer.toByteArray())
+    }
+
+    return digest.digest().joinToString("") { "%02x".format(it) }
+}
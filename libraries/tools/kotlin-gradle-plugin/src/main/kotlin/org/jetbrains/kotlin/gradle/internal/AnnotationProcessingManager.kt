@@ -24,6 +24,7 @@ import org.gradle.api.tasks.compile.JavaCompile
 import org.jetbrains.kotlin.gradle.plugin.*
 import java.io.File
 import java.io.IOException
+import java.security.MessageDigest
 import java.util.*
 import java.util.zip.ZipFile
 
@@ -38,6 +39,7 @@ fun Project.initKapt(
 ): AbstractCompile? {
     val kaptExtension = extensions.getByType(KaptExtension::class.java)
     val kotlinAfterJavaTask: AbstractCompile?
+    val stubsDir: File?
 
     if (kaptExtension.generateStubs) {
         kotlinAfterJavaTask = createKotlinAfterJavaTask(javaTask, kotlinTask, kotlinOptions, taskFactory)
@@ -45,14 +47,26 @@ fun Project.initKapt(
 
         kotlinTask.logger.kotlinDebug("kapt: Using class file stubs")
 
-        val stubsDir = File(buildDir, "tmp/kapt/$variantName/classFileStubs")
+        stubsDir = File(buildDir, "tmp/kapt/$variantName/classFileStubs")
         kotlinTask.extensions.extraProperties.set("kaptStubsDir", stubsDir)
         javaTask.appendClasspathDynamically(stubsDir)
         kotlinTask.appendClasspathDynamically(stubsDir)
 
+        // java task is up-to-date when kotlin changes don't affect stubs, so kotlin sources are also added after kotlin task
+        var kotlinSourcesAdded = false
+        fun addKotlinSources() {
+            if (kotlinSourcesAdded) return
+            kotlinAfterJavaTask.source(kotlinTask.source)
+            kotlinSourcesAdded = true
+        }
+
+        kotlinTask.doLast {
+            addKotlinSources()
+        }
+
         val javaDestinationDir = project.files(javaTask.destinationDir)
         javaTask.doLast {
-            kotlinAfterJavaTask.source(kotlinTask.source)
+            addKotlinSources()
             // we don't want kotlinAfterJavaTask to track modifications in generated class
             kotlinAfterJavaTask.classpath -= javaDestinationDir
         }
@@ -66,6 +80,7 @@ fun Project.initKapt(
         subpluginEnvironment.addSubpluginArguments(this, kotlinAfterJavaTask)
     } else {
         kotlinAfterJavaTask = null
+        stubsDir = null
         kotlinTask.logger.kotlinDebug("kapt: Class file stubs are not used")
     }
 
@@ -77,15 +92,18 @@ fun Project.initKapt(
     }
 
     kotlinTask.doFirst {
-        kaptManager.generateJavaHackFile()
         kotlinAfterJavaTask?.source(kaptManager.getGeneratedKotlinSourceDir())
     }
 
+    kotlinTask.doLast {
+        kaptManager.generateJavaHackFile(stubsDir)
+    }
+
     var originalJavaCompilerArgs: List<String>? = null
     javaTask.doFirst {
         originalJavaCompilerArgs = (javaTask as JavaCompile).options.compilerArgs
         kaptManager.setupKapt()
-        kaptManager.generateJavaHackFile()
+        kaptManager.generateJavaHackFile(stubsDir)
         kotlinAfterJavaTask?.source(kaptManager.getGeneratedKotlinSourceDir())
     }
 
@@ -137,7 +155,6 @@ public class AnnotationProcessingManager(
         private val androidVariant: Any? = null) {
 
     private val project = task.project
-    private val random = Random()
     val wrappersDirectory = File(aptWorkingDir, "wrappers")
     val hackAnnotationDir = File(aptWorkingDir, "java_src")
 
@@ -191,24 +208,44 @@ public class AnnotationProcessingManager(
         }
     }
 
-    fun generateJavaHackFile() {
+    /**
+     * The stub is a source of the java task, so annotation processors are rerun only when its content changes.
+     * It contains a hash of the Kotlin annotations and of the class file stubs (if [stubsDir] is used),
+     * so Kotlin changes which are not visible to annotation processors don't cause reprocessing.
+     */
+    fun generateJavaHackFile(stubsDir: File?) {
         val javaHackPackageDir = File(hackAnnotationDir, GEN_ANNOTATION)
 
         if (!javaHackPackageDir.exists()) javaHackPackageDir.mkdirs()
 
         val javaHackClFile = File(javaHackPackageDir, "Cl.java")
         val previouslyExisted = javaHackClFile.exists()
-        val comment = System.currentTimeMillis().toString() + "-" + random.nextInt()
+        val comment = getKotlinInputsHash(stubsDir)
+        val text = "// $comment\n" +
+                   "package __gen.annotation;\n" +
+                   "class Cl { @__gen.KotlinAptAnnotation boolean v; }"
+
+        if (previouslyExisted && javaHackClFile.readText() == text) {
+            project.logger.kotlinDebug("kapt: Java file stub is up-to-date: $javaHackClFile")
+            return
+        }
 
-        javaHackClFile.writeText(
-                "// $comment\n" +
-                        "package __gen.annotation;\n" +
-                        "class Cl { @__gen.KotlinAptAnnotation boolean v; }")
+        javaHackClFile.writeText(text)
 
         project.logger.kotlinDebug("kapt: Java file stub generated: $javaHackClFile " +
                 "(previously existed: $previouslyExisted)")
     }
 
+    private fun getKotlinInputsHash(stubsDir: File?): String {
+        val annotationFile = getAnnotationFile()
+        val annotationsHash = if (annotationFile.exists()) annotationFile.readBytes().md5String() else ""
+        val stubsHash = if (stubsDir != null && stubsDir.exists()) invokeCoreKaptMethod("kaptStubsAbiHash", stubsDir) as String else ""
+        return "$annotationsHash-$stubsHash"
+    }
+
+    private fun ByteArray.md5String(): String =
+            MessageDigest.getInstance("MD5").digest(this).joinToString("") { "%02x".format(it) }
+
     private fun appendAnnotationsArguments() {
         javaTask.modifyCompilerArguments { list ->
             list.add("-Akapt.annotations=" + getAnnotationFile())
@@ -92,6 +92,28 @@ abstract class KaptIncrementalBaseIT(val shouldUseStubs: Boolean): BaseGradleIT(
         }
     }
 
+    @Test
+    fun testChangeFunctionBody() {
+        val project = getProject()
+        project.build("build") {
+            assertSuccessful()
+        }
+
+        val utilKt = project.projectDir.getFileByName("util.kt")
+        utilKt.modify { it.replace("fun notAnnotatedFun() {}", "fun notAnnotatedFun() { println() }") }
+
+        project.build("build") {
+            assertSuccessful()
+            checkGenerated(*annotatedElements)
+
+            if (shouldUseStubs) {
+                // stubs ABI and annotations are not changed, so annotation processors are not rerun
+                assertContains(":compileJava UP-TO-DATE")
+                assertNotContains(":compileKotlinAfterJava UP-TO-DATE")
+            }
+        }
+    }
+
     @Test
     fun testRemoveSourceFile() {
         val project = getProject()
@@ -3,6 +3,8 @@ package org.jetbrains.kotlin.gradle
 import org.gradle.api.logging.LogLevel
 import org.jetbrains.kotlin.gradle.plugin.CleanUpBuildListener
 import org.jetbrains.kotlin.gradle.tasks.USING_EXPERIMENTAL_INCREMENTAL_MESSAGE
+import org.jetbrains.kotlin.gradle.util.getFileByName
+import org.jetbrains.kotlin.gradle.util.modify
 import org.junit.Test
 import java.io.File
 import kotlin.test.assertTrue
@@ -172,6 +174,52 @@ class KotlinGradleIT: BaseGradleIT() {
         }
     }
 
+    @Test
+    fun testMultiprojectIncrementalAbiCompatibleChange() {
+        val project = Project("multiprojectWithDependency", GRADLE_VERSION)
+        val incremental = defaultBuildOptions().copy(incremental = true)
+
+        project.build("assemble", options = incremental) {
+            assertSuccessful()
+        }
+
+        // only the body of projA.getInfo changes, so projB should not be recompiled
+        val aKt = File(project.projectDir, "projA/src/main/kotlin/a.kt")
+        File(project.projectDir, "projA/src/main/kotlin/a.kt.new").copyTo(aKt, overwrite = true)
+
+        project.build("assemble", options = incremental) {
+            assertSuccessful()
+            assertContains(":projB:compileKotlin")
+            assertNotContains("projB:compileKotlin UP-TO-DATE", "rebuilding all kotlin files")
+            assertCompiledKotlinSources(project.relativizeToSubproject("projA", aKt))
+        }
+    }
+
+    @Test
+    fun testIncrementalJavaConstructorChange() {
+        val project = Project("kotlinJavaProject", GRADLE_VERSION)
+        val incremental = defaultBuildOptions().copy(incremental = true)
+        project.setupWorkingDir()
+
+        val factoryKt = File(project.projectDir, "src/main/kotlin/greeterFactory.kt")
+        factoryKt.writeText("package demo\n\nfun createGreeter() = Greeter(\"Hi\")\n")
+
+        project.build("build", options = incremental) {
+            assertSuccessful()
+        }
+
+        // the call is source compatible, but the constructor descriptor changes, so the Kotlin caller has to be recompiled
+        project.projectDir.getFileByName("Greeter.java").modify {
+            it.replace("Greeter(String greeting)", "Greeter(CharSequence greeting)").replace("= greeting;", "= greeting.toString();")
+        }
+
+        project.build("build", options = incremental) {
+            assertSuccessful()
+            assertNotContains("rebuilding all kotlin files")
+            assertCompiledKotlinSources(project.relativize(factoryKt), weakTesting = true)
+        }
+    }
+
     @Test
     fun testKotlinInJavaRoot() {
         Project("kotlinInJavaRoot", GRADLE_VERSION).build("build") {
@@ -0,0 +1,78 @@
+@file:Suppress("INVISIBLE_REFERENCE", "INVISIBLE_MEMBER") // the snapshot API is internal to kotlin-gradle-plugin-core
+package org.jetbrains.kotlin.gradle.tasks
+
+import org.jetbrains.kotlin.incremental.ChangeInfo
+import org.junit.Assert.*
+import org.junit.Test
+
+class JavaSourcesSnapshotTest {
+    @Test
+    fun methodBodiesAndCommentsAreIgnored() {
+        val source = """
+            // comment
+            public class A {
+                /** doc */
+                public int foo(int x) {
+                    return x + 1;
+                }
+
+                static {
+                    System.out.println("init");
+                }
+            }
+        """
+
+        assertEquals(javaSignatureText(source),
+                     javaSignatureText(source.replace("x + 1", "x * 2").replace("init", "other").replace("doc", "changed")))
+        assertNotEquals(javaSignatureText(source), javaSignatureText(source.replace("int x", "long x")))
+    }
+
+    @Test
+    fun arrayInitializersAreKept() {
+        val annotation = """
+            @Target({ElementType.METHOD, ElementType.FIELD})
+            public @interface Foo {
+                String[] value() default {"a"};
+            }
+        """
+        assertNotEquals(javaSignatureText(annotation), javaSignatureText(annotation.replace(", ElementType.FIELD", "")))
+        assertNotEquals(javaSignatureText(annotation), javaSignatureText(annotation.replace("\"a\"", "\"b\"")))
+
+        val fields = """
+            public class A {
+                @Foo(value = {"x"}) public static final int[] VALUES = {1, 2};
+                public void foo() {}
+            }
+        """
+        assertNotEquals(javaSignatureText(fields), javaSignatureText(fields.replace("{1, 2}", "{1, 3}")))
+        assertNotEquals(javaSignatureText(fields), javaSignatureText(fields.replace("\"x\"", "\"y\"")))
+        assertTrue(javaSignatureText(fields).contains("void foo (){}"))
+    }
+
+    @Test
+    fun changedClassesAndMembers() {
+        val old = mapOf("a.A" to JavaClassSnapshot(1, mapOf("foo" to 1L, "bar" to 2L)),
+                        "a.B" to JavaClassSnapshot(1, mapOf()))
+        val new = mapOf("a.A" to JavaClassSnapshot(1, mapOf("foo" to 1L, "bar" to 3L, "baz" to 4L)),
+                        "a.B" to JavaClassSnapshot(2, mapOf()))
+
+        val changes = changesBetween(old, new)
+
+        val membersChanged = changes.filterIsInstance<ChangeInfo.MembersChanged>().single()
+        assertEquals("a.A", membersChanged.fqName.asString())
+        assertEquals(setOf("bar", "baz"), membersChanged.names.toSet())
+
+        val signatureChanged = changes.filterIsInstance<ChangeInfo.SignatureChanged>().single()
+        assertEquals("a.B", signatureChanged.fqName.asString())
+    }
+
+    @Test
+    fun everythingIsChangedWithoutPreviousSnapshot() {
+        val new = mapOf("a.A" to JavaClassSnapshot(1, mapOf("foo" to 1L)))
+
+        val changes = changesBetween(null, new)
+
+        assertEquals("a.A", changes.filterIsInstance<ChangeInfo.SignatureChanged>().single().fqName.asString())
+        assertEquals(listOf("foo"), changes.filterIsInstance<ChangeInfo.MembersChanged>().single().names.toList())
+    }
+}
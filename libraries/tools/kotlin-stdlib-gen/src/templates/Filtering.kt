@@ -438,6 +438,7 @@ fun filtering(): List<GenericFunction> {
         returns(Sequences) { "Sequence<T>" }
         body(Sequences) {
             """
+            if (this is FilterMapSequence) return this.filter(true, predicate)
             return FilteringSequence(this, true, predicate)
             """
         }
@@ -550,6 +551,7 @@ fun filtering(): List<GenericFunction> {
         returns(Sequences) { "Sequence<T>" }
         body(Sequences) {
             """
+            if (this is FilterMapSequence) return this.filter(false, predicate)
             return FilteringSequence(this, false, predicate)
             """
         }
@@ -78,7 +78,10 @@ fun mapping(): List<GenericFunction> {
         inline(false, Sequences)
         returns(Sequences) { "Sequence<R>" }
         body(Sequences) {
-            "return TransformingSequence(this, transform)"
+            """
+            if (this is FilterMapSequence) return this.map(transform)
+            return TransformingSequence(this, transform)
+            """
         }
         include(Maps)
     }
@@ -20,6 +20,29 @@ fun numeric(): List<GenericFunction> {
             return sum
             """
         }
+        // ranges, progressions and primitive arrays viewed as collections or sequences provide primitive iterators,
+        // which can be traversed without boxing every element
+        for (family in listOf(Iterables, Sequences)) {
+            for (primitive in numericPrimitives) {
+                bodyForTypes(family, primitive) {
+                    """
+                    var sum: SUM = ZERO
+                    val iterator = iterator()
+                    if (iterator is ${primitive.name}Iterator) {
+                        while (iterator.hasNext()) {
+                            sum += iterator.next${primitive.name}()
+                        }
+                    }
+                    else {
+                        for (element in iterator) {
+                            sum += element
+                        }
+                    }
+                    return sum
+                    """
+                }
+            }
+        }
     }
 
     templates add f("average()") {
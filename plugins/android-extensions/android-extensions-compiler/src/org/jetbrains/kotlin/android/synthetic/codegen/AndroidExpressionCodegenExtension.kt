@@ -90,6 +90,8 @@ class AndroidExpressionCodegenExtension : ExpressionCodegenExtension {
     companion object {
         private val PROPERTY_NAME = "_\$_findViewCache"
         private val CACHED_FIND_VIEW_BY_ID_METHOD_NAME = "_\$_findCachedViewById"
+        // SparseArray is keyed by primitive ints, so cache lookups don't box view ids
+        private val CACHE_TYPE = Type.getObjectType("android/util/SparseArray")
         val CLEAR_CACHE_METHOD_NAME = "_\$_clearFindViewByIdCache"
         val ON_DESTROY_METHOD_NAME = "onDestroyView"
 
@@ -268,7 +270,7 @@ class AndroidExpressionCodegenExtension : ExpressionCodegenExtension {
             }
         }
 
-        classBuilder.newField(JvmDeclarationOrigin.NO_ORIGIN, ACC_PRIVATE, PROPERTY_NAME, "Ljava/util/HashMap;", null, null)
+        classBuilder.newField(JvmDeclarationOrigin.NO_ORIGIN, ACC_PRIVATE, PROPERTY_NAME, CACHE_TYPE.descriptor, null, null)
     }
 
     private fun FunctionDescriptor.isOnDestroyFunction(): Boolean {
@@ -305,7 +307,7 @@ class AndroidExpressionCodegenExtension : ExpressionCodegenExtension {
 
         fun loadCache() {
             iv.load(0, classType)
-            iv.getfield(className, PROPERTY_NAME, "Ljava/util/HashMap;")
+            iv.getfield(className, PROPERTY_NAME, CACHE_TYPE.descriptor)
         }
 
         loadCache()
@@ -313,7 +315,7 @@ class AndroidExpressionCodegenExtension : ExpressionCodegenExtension {
         iv.ifnull(lCacheIsNull)
 
         loadCache()
-        iv.invokevirtual("java/util/HashMap", "clear", "()V", false)
+        iv.invokevirtual(CACHE_TYPE.internalName, "clear", "()V", false)
 
         iv.visitLabel(lCacheIsNull)
         iv.areturn(Type.VOID_TYPE)
@@ -333,7 +335,7 @@ class AndroidExpressionCodegenExtension : ExpressionCodegenExtension {
 
         fun loadCache() {
             iv.load(0, classType)
-            iv.getfield(className, PROPERTY_NAME, "Ljava/util/HashMap;")
+            iv.getfield(className, PROPERTY_NAME, CACHE_TYPE.descriptor)
         }
 
         fun loadId() = iv.load(1, Type.INT_TYPE)
@@ -346,17 +348,16 @@ class AndroidExpressionCodegenExtension : ExpressionCodegenExtension {
 
         // Init cache if null
         iv.load(0, classType)
-        iv.anew(Type.getType("Ljava/util/HashMap;"))
+        iv.anew(CACHE_TYPE)
         iv.dup()
-        iv.invokespecial("java/util/HashMap", "<init>", "()V", false)
-        iv.putfield(className, PROPERTY_NAME, "Ljava/util/HashMap;")
+        iv.invokespecial(CACHE_TYPE.internalName, "<init>", "()V", false)
+        iv.putfield(className, PROPERTY_NAME, CACHE_TYPE.descriptor)
 
         // Get View from cache
         iv.visitLabel(lCacheNonNull)
         loadCache()
         loadId()
-        iv.invokestatic("java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false)
-        iv.invokevirtual("java/util/HashMap", "get", "(Ljava/lang/Object;)Ljava/lang/Object;", false)
+        iv.invokevirtual(CACHE_TYPE.internalName, "get", "(I)Ljava/lang/Object;", false)
         iv.checkcast(viewType)
         iv.store(2, viewType)
 
@@ -383,10 +384,8 @@ class AndroidExpressionCodegenExtension : ExpressionCodegenExtension {
         // Store resolved View in cache
         loadCache()
         loadId()
-        iv.invokestatic("java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false)
         iv.load(2, viewType)
-        iv.invokevirtual("java/util/HashMap", "put", "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", false)
-        iv.pop()
+        iv.invokevirtual(CACHE_TYPE.internalName, "put", "(ILjava/lang/Object;)V", false)
 
         iv.visitLabel(lViewNonNull)
         iv.load(2, viewType)
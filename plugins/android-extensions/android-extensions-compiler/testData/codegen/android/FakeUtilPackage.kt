@@ -0,0 +1,17 @@
+package android.util
+
+import java.util.HashMap
+
+open class SparseArray<E> {
+    private val map = HashMap<Int, E>()
+
+    open fun get(key: Int): E? = map[key]
+
+    open fun put(key: Int, value: E) {
+        map[key] = value
+    }
+
+    open fun clear() {
+        map.clear()
+    }
+}
@@ -12,3 +12,5 @@ public class MyActivity : Activity() {
 // 1 public _\$_findCachedViewById
 // 1 public _\$_clearFindViewByIdCache
 // 1 INVOKEVIRTUAL test/MyActivity\._\$_clearFindViewByIdCache
+
+// 1 INVOKEVIRTUAL android/util/SparseArray\.clear \(\)V
\ No newline at end of file
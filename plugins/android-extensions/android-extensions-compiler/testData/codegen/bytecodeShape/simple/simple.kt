@@ -13,4 +13,9 @@ public class MyActivity : Activity() {
 // 1 public _\$_clearFindViewByIdCache
 // 1 GETSTATIC test/R\$id\.login
 // 1 INVOKEVIRTUAL test/MyActivity\._\$_findCachedViewById
-// 1 CHECKCAST android/widget/Button
\ No newline at end of file
+// 1 CHECKCAST android/widget/Button
+// 1 private Landroid/util/SparseArray; _\$_findViewCache
+// 1 INVOKEVIRTUAL android/util/SparseArray\.get \(I\)Ljava/lang/Object;
+// 1 INVOKEVIRTUAL android/util/SparseArray\.put \(ILjava/lang/Object;\)V
+// 0 java/lang/Integer\.valueOf
+// 0 java/util/HashMap
\ No newline at end of file
@@ -56,6 +56,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -96,6 +97,9 @@ public class LintDriver {
     private boolean mAbbreviating = true;
     private boolean mParserErrors;
     private Map<Object,Object> mProperties;
+    private boolean mTimingDetectors;
+    private final Map<Class<? extends Detector>, Long> mDetectorTimes =
+            new HashMap<Class<? extends Detector>, Long>();
 
     /**
      * Creates a new {@link LintDriver}
@@ -255,6 +259,41 @@ public class LintDriver {
         return mAbbreviating;
     }
 
+    /**
+     * Sets whether lint should measure the time spent in each UAST detector and log
+     * the totals when the analysis is done, which helps to find slow checks.
+     *
+     * @param timingDetectors true to measure and log detector timings
+     */
+    public void setTimingDetectors(boolean timingDetectors) {
+        mTimingDetectors = timingDetectors;
+    }
+
+    /**
+     * Returns the total time in milliseconds spent in each UAST detector during the
+     * last analysis. Only computed when {@link #setTimingDetectors(boolean)} is on.
+     *
+     * @return the detector timings, sorted from the slowest detector
+     */
+    @NonNull
+    public Map<Class<? extends Detector>, Long> getDetectorTimings() {
+        List<Map.Entry<Class<? extends Detector>, Long>> entries =
+                new ArrayList<Map.Entry<Class<? extends Detector>, Long>>(mDetectorTimes.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<Class<? extends Detector>, Long>>() {
+            @Override
+            public int compare(Map.Entry<Class<? extends Detector>, Long> o1,
+                    Map.Entry<Class<? extends Detector>, Long> o2) {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+
+        Map<Class<? extends Detector>, Long> timings = new LinkedHashMap<Class<? extends Detector>, Long>();
+        for (Map.Entry<Class<? extends Detector>, Long> entry : entries) {
+            timings.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+        }
+        return timings;
+    }
+
     /**
      * Returns whether lint has encountered any files with fatal parser errors
      * (e.g. broken source code, or even broken parsers)
@@ -318,12 +357,20 @@ public class LintDriver {
      * @param request the files and directories to be analyzed
      */
     public void analyze(@NonNull LintRequest request) {
+        mDetectorTimes.clear();
         try {
             mRequest = request;
             analyze();
         } finally {
             mRequest = null;
         }
+
+        if (mTimingDetectors) {
+            for (Map.Entry<Class<? extends Detector>, Long> entry : getDetectorTimings().entrySet()) {
+                mClient.log(Severity.INFORMATIONAL, null, "%1$s: %2$d ms",
+                        entry.getKey().getSimpleName(), entry.getValue());
+            }
+        }
     }
 
     /** Runs the driver to analyze the requested files */
@@ -1444,22 +1491,17 @@ public class LintDriver {
                 return;
             }
 
+            List<UastScanner> uastDetectors = new ArrayList<UastScanner>(checks.size());
+            for (Detector check : checks) {
+                if (check instanceof UastScanner) {
+                    uastDetectors.add((UastScanner) check);
+                }
+            }
+
             for (JavaContext context : contexts) {
                 fireEvent(LintListener.EventType.SCANNING_FILE, context);
 
-                for (Detector check : checks) {
-                    if (check instanceof UastScanner) {
-                        UastScanner scanner = (UastScanner) check;
-                        UastVisitor customVisitor = scanner.createUastVisitor(context);
-                        if (customVisitor != null) {
-                            UastChecker.INSTANCE.check(
-                                    ideaProject, context.file, context, customVisitor);
-                        } else {
-                            UastChecker.INSTANCE.check(
-                                    ideaProject, context.file, (UastScanner)check, context);
-                        }
-                    }
-                }
+                checkWithUastDetectors(ideaProject, context, uastDetectors);
 
                 if (mCanceled) {
                     return;
@@ -1494,7 +1536,6 @@ public class LintDriver {
             return;
         }
 
-        UastChecker checker = UastChecker.INSTANCE;
         List<UastLanguagePlugin> plugins = project.getClient().getLanguagePlugins();
 
         for (File file : files) {
@@ -1511,17 +1552,47 @@ public class LintDriver {
             JavaContext
                     context = new JavaContext(this, project, main, file);
 
-            for (UastScanner detector : detectors) {
-                UastVisitor customHandler = detector.createUastVisitor(context);
-                if (customHandler != null) {
-                    checker.check(intellijProject, file, context, customHandler);
-                } else {
-                    checker.check(intellijProject, file, detector, context);
-                }
+            checkWithUastDetectors(intellijProject, context, detectors);
+
+            if (mCanceled) {
+                return;
             }
         }
     }
 
+    /**
+     * Runs the given detectors on a single file
+     */
+    private void checkWithUastDetectors(
+            @NonNull com.intellij.openapi.project.Project ideaProject,
+            @NonNull JavaContext context,
+            @NonNull List<UastScanner> detectors) {
+        for (UastScanner detector : detectors) {
+            checkWithUastDetector(ideaProject, context, detector);
+        }
+    }
+
+    private void checkWithUastDetector(
+            @NonNull com.intellij.openapi.project.Project ideaProject,
+            @NonNull JavaContext context,
+            @NonNull UastScanner detector) {
+        long start = mTimingDetectors ? System.nanoTime() : 0;
+
+        UastVisitor customVisitor = detector.createUastVisitor(context);
+        if (customVisitor != null) {
+            UastChecker.INSTANCE.check(ideaProject, context.file, context, customVisitor);
+        } else {
+            UastChecker.INSTANCE.check(ideaProject, context.file, detector, context);
+        }
+
+        if (mTimingDetectors) {
+            long time = System.nanoTime() - start;
+            Class<? extends Detector> detectorClass = ((Detector) detector).getClass();
+            Long total = mDetectorTimes.get(detectorClass);
+            mDetectorTimes.put(detectorClass, total != null ? total + time : time);
+        }
+    }
+
     private static void gatherJavaFiles(@NonNull File dir, @NonNull List<File> result) {
         File[] files = dir.listFiles();
         if (files != null) {
@@ -41,6 +41,8 @@ import java.util.Map;
 
 class AndroidLintGlobalInspectionContext implements GlobalInspectionContextExtension<AndroidLintGlobalInspectionContext> {
   static final Key<AndroidLintGlobalInspectionContext> ID = Key.create("AndroidKlintGlobalInspectionContext");
+  // Logs the time spent in each lint detector after a batch run, to find slow checks
+  private static final boolean LOG_DETECTOR_TIMINGS = Boolean.getBoolean("kotlin.lint.detector.timings");
   private Map<Issue, Map<File, List<ProblemData>>> myResults;
 
   @NotNull
@@ -70,6 +72,7 @@ class AndroidLintGlobalInspectionContext implements GlobalInspectionContextExten
 
     final IntellijLintClient client = IntellijLintClient.forBatch(project, problemMap, scope, issues);
     final LintDriver lint = new LintDriver(new IntellijLintIssueRegistry(), client);
+    lint.setTimingDetectors(LOG_DETECTOR_TIMINGS);
 
     final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
     if (indicator != null) {
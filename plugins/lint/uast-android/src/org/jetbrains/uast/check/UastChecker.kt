@@ -20,9 +20,15 @@ import com.android.tools.klint.detector.api.JavaContext
 import com.android.tools.klint.detector.api.Location
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.Key
 import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiJavaFile
 import com.intellij.psi.PsiManager
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
 import org.jetbrains.uast.*
 import org.jetbrains.uast.UastCallKind.Companion.CONSTRUCTOR_CALL
 import org.jetbrains.uast.UastCallKind.Companion.FUNCTION_CALL
@@ -40,6 +46,8 @@ interface UastAndroidContext : UastContext {
 }
 
 object UastChecker {
+    private val UAST_FILE_KEY = Key.create<CachedValue<UElement?>>("UAST_FILE")
+
     fun check(project: Project, file: File, context: UastAndroidContext, visitor: UastVisitor) {
         val vfile = VirtualFileManager.getInstance().findFileByUrl("file://" + file.absolutePath) ?: return
 
@@ -50,23 +58,33 @@ object UastChecker {
             val psiFile = PsiManager.getInstance(project).findFile(vfile)
 
             if (psiFile != null) {
-                when (psiFile) {
-                    is PsiJavaFile -> {
-                        val ufile = JavaUastLanguagePlugin.converter.convertWithParent(psiFile)
-                        ufile?.accept(extendableVisitor)
-                    }
-                    else -> for (plugin in plugins) {
-                        val ufile = plugin.converter.convertWithParent(psiFile)
-                        if (ufile != null) {
-                            ufile.accept(extendableVisitor)
-                            break
-                        }
-                    }
-                }
+                getUastFile(psiFile, plugins)?.accept(extendableVisitor)
             }
         }
     }
 
+    /**
+     * Returns the UAST tree of the file, converting it only once for all detectors.
+     * UAST elements cache resolve results which depend on other files, so the tree is dropped
+     * on any PSI modification in the project (or when memory is low).
+     */
+    private fun getUastFile(psiFile: PsiFile, plugins: List<UastLanguagePlugin>): UElement? {
+        return CachedValuesManager.getManager(psiFile.project).getCachedValue(psiFile, UAST_FILE_KEY, {
+            CachedValueProvider.Result.create(convertFile(psiFile, plugins), PsiModificationTracker.MODIFICATION_COUNT)
+        }, false)
+    }
+
+    private fun convertFile(psiFile: PsiFile, plugins: List<UastLanguagePlugin>): UElement? {
+        if (psiFile is PsiJavaFile) {
+            return JavaUastLanguagePlugin.converter.convertWithParent(psiFile)
+        }
+        for (plugin in plugins) {
+            val ufile = plugin.converter.convertWithParent(psiFile)
+            if (ufile != null) return ufile
+        }
+        return null
+    }
+
     fun check(project: Project, file: File, scanner: UastScanner, context: UastAndroidContext) {
         val applicableFunctionNames = scanner.applicableFunctionNames ?: emptyList()
         val applicableSuperClasses = scanner.applicableSuperClasses ?: emptyList()